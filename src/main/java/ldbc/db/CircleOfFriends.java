@@ -0,0 +1,123 @@
+/**
+ * A person's circle of friends.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.LongList;
+import ldbc.helpers.LongSet;
+
+/**
+ * The persons reachable from a given person over at most a few
+ * KNOWS edges.
+ *
+ * The circle lists Neo4j node IDs ordered by their distance from the
+ * person; the person itself is not part of its own circle.  Friends at
+ * distance d occupy positions start(d) (inclusive) to end(d)
+ * (exclusive).  The order of friends at the same distance is
+ * unspecified.
+ *
+ * A circle may be limited to the persons passing a filter.  Such a
+ * circle is collected one distance at a time and stops growing after
+ * the first distance at which enough persons passed: callers ordering
+ * by distance first have no use for farther ones.  The distances not
+ * reached are then empty.
+ */
+public class CircleOfFriends {
+
+    /** A test applied to each person reached. */
+    public interface Filter {
+        /** @return true if the person belongs in the circle */
+        boolean accept(long personNodeId);
+    }
+
+    private final long[] friends;
+    private final int[] ends;
+
+    CircleOfFriends(long[] friends, int[] ends) {
+        this.friends = friends;
+        this.ends = ends;
+    }
+
+    /** @return the number of friends in the circle */
+    public int size() { return friends.length; }
+
+    /** @return the largest distance the circle was asked to cover */
+    public int maxDistance() { return ends.length; }
+
+    /** @return the node ID of the friend at the given position */
+    public long nodeId(int position) { return friends[position]; }
+
+    /** @return the node IDs of every friend in the circle */
+    public long[] nodeIds() { return friends.clone(); }
+
+    /** @return the position of the first friend at distance */
+    public int start(int distance) { return distance == 1 ? 0 : ends[distance - 2]; }
+
+    /** @return the position following the last friend at distance */
+    public int end(int distance) { return ends[distance - 1]; }
+
+    /** @return the distance of the friend at the given position */
+    public int distance(int position) {
+        int distance = 1;
+        while (position >= ends[distance - 1])
+            distance++;
+        return distance;
+    }
+
+    /**
+     * Collect the circle by walking KNOWS edges breadth first.
+     *
+     * This is the fallback used when no KNOWS index is available.
+     */
+    static CircleOfFriends walk(GraphDatabaseService db, Node person, int maxDistance) {
+        return walk(db, person, maxDistance, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Collect the persons passing a filter by walking KNOWS edges
+     * breadth first, stopping after the first distance at which at
+     * least limit persons passed.
+     * @param filter  The filter or null to accept every person
+     */
+    static CircleOfFriends walk(GraphDatabaseService db, Node person, int maxDistance,
+                                Filter filter, int limit) {
+        LongList friends = new LongList();
+        int[] ends = new int[maxDistance];
+        LongSet visited = new LongSet(64);
+        visited.add(person.getId());
+
+        // The frontier of the first level is the person alone.
+        LongList frontier = new LongList();
+        frontier.add(person.getId());
+        for (int distance = 1; distance <= maxDistance; distance++) {
+            if (friends.size() >= limit) {
+                ends[distance - 1] = friends.size();
+                continue;
+            }
+            LongList nextFrontier = new LongList();
+            for (int i = 0; i < frontier.size(); i++) {
+                Node node = db.getNodeById(frontier.get(i));
+                for (Relationship edge : node.getRelationships(Direction.BOTH, LdbcUtils.EdgeType.KNOWS)) {
+                    long friendId = edge.getOtherNode(node).getId();
+                    if (visited.add(friendId)) {
+                        if (filter == null || filter.accept(friendId))
+                            friends.add(friendId);
+                        nextFrontier.add(friendId);
+                    }
+                }
+            }
+            ends[distance - 1] = friends.size();
+            frontier = nextFrontier;
+        }
+        return new CircleOfFriends(friends.toArray(), ends);
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Per-person lists of entries keyed by a date and an ID.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+
+import ldbc.helpers.DatedSort;
+import ldbc.helpers.LongIntMap;
+
+/**
+ * The storage of the likes and replies indexes: for each person, a
+ * list of entries ordered by date.
+ *
+ * An entry is a date, an LDBC ID (of the message liked or the reply)
+ * and a node ID (of the liker or the replier), held at the same
+ * position of three parallel primitive arrays.  Entries are in
+ * ascending order of date, then descending order of ID, so new
+ * entries, nearly always the newest, append at the end, and walking
+ * the arrays backwards yields the newest entry first, ties broken by
+ * the smaller ID.
+ *
+ * This class is not thread-safe; the indexes lock around it.
+ */
+final class DatedIds {
+
+    /* One list per person ordinal; sizes[i] entries are in use. */
+    private final LongIntMap ordinals = new LongIntMap(1024, -1);
+    private long[][] dates = new long[16][];
+    private long[][] ids = new long[16][];
+    private long[][] nodeIds = new long[16][];
+    private int[] sizes = new int[16];
+    private int personCount;
+
+    /** @return the ordinal of the person or -1 if the person has no entry */
+    int ordinal(long personNodeId) { return ordinals.get(personNodeId); }
+
+    /** @return the dates of the person with the given ordinal */
+    long[] dates(int ordinal) { return dates[ordinal]; }
+
+    /** @return the IDs of the person with the given ordinal */
+    long[] ids(int ordinal) { return ids[ordinal]; }
+
+    /** @return the node IDs of the person with the given ordinal */
+    long[] nodeIds(int ordinal) { return nodeIds[ordinal]; }
+
+    /** @return the number of entries of the person with the given ordinal */
+    int size(int ordinal) { return sizes[ordinal]; }
+
+    /** Append an entry out of order; call sortAll() once all are in. */
+    void append(long personNodeId, long date, long id, long nodeId) {
+        int ordinal = ordinals.get(personNodeId);
+        if (ordinal < 0) {
+            ordinal = personCount++;
+            if (ordinal == sizes.length) {
+                int capacity = ordinal * 2;
+                dates = Arrays.copyOf(dates, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                nodeIds = Arrays.copyOf(nodeIds, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            ordinals.put(personNodeId, ordinal);
+            dates[ordinal] = new long[4];
+            ids[ordinal] = new long[4];
+            nodeIds[ordinal] = new long[4];
+        }
+        int size = sizes[ordinal];
+        if (size == dates[ordinal].length) {
+            dates[ordinal] = Arrays.copyOf(dates[ordinal], size * 2);
+            ids[ordinal] = Arrays.copyOf(ids[ordinal], size * 2);
+            nodeIds[ordinal] = Arrays.copyOf(nodeIds[ordinal], size * 2);
+        }
+        dates[ordinal][size] = date;
+        ids[ordinal][size] = id;
+        nodeIds[ordinal][size] = nodeId;
+        sizes[ordinal] = size + 1;
+    }
+
+    /** Sort the entries of every person. */
+    void sortAll() {
+        for (int ordinal = 0; ordinal < personCount; ordinal++)
+            DatedSort.sort(dates[ordinal], ids[ordinal], nodeIds[ordinal], sizes[ordinal]);
+    }
+
+    /** Insert an entry at its place. */
+    void insert(long personNodeId, long date, long id, long nodeId) {
+        append(personNodeId, date, id, nodeId);
+
+        // Move the new entry down past any later one.
+        int ordinal = ordinals.get(personNodeId);
+        long[] personDates = dates[ordinal];
+        long[] personIds = ids[ordinal];
+        long[] personNodeIds = nodeIds[ordinal];
+        for (int position = sizes[ordinal] - 1;
+             position > 0 && DatedSort.after(personDates[position - 1], personIds[position - 1], date, id);
+             position--)
+            DatedSort.swap(personDates, personIds, personNodeIds, position - 1, position);
+    }
+
+}
@@ -1,7 +1,7 @@
 /**
  * Extensions to Neo4j's interface.
  *
- * Copyright © 2016, 2018 Alain Kägi
+ * Copyright © 2016, 2018, 2026 Alain Kägi
  */
 
 package ldbc.db;
@@ -16,7 +16,6 @@ import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.traversal.TraversalDescription;
-import org.neo4j.graphdb.traversal.Evaluators;
 
 public class DbUtils {
 
@@ -47,10 +46,7 @@ public class DbUtils {
     public static Node findProgenitor(GraphDatabaseService db,
                                       Node startNode,
                                       RelationshipType edgeType, Direction edgeDirection) {
-        TraversalDescription progenitorTraversal = db.traversalDescription()
-            .depthFirst()
-            .relationships(edgeType, edgeDirection)
-            .evaluator(Evaluators.excludeStartPosition());
+        TraversalDescription progenitorTraversal = TraversalPlans.of(db).ancestorsOf(edgeType, edgeDirection);
         Node candidateProgenitor = startNode;
         for (Node nextNode : progenitorTraversal.traverse(startNode).nodes())
             candidateProgenitor = nextNode;
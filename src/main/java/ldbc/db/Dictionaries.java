@@ -0,0 +1,191 @@
+/**
+ * Dictionary encodings of low-cardinality string properties.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongList;
+
+/**
+ * The dictionaries of the string properties with few distinct values.
+ *
+ * Persons have one of two genders, one of a handful of browsers, and
+ * speak a few dozen languages between them; they share a few thousand
+ * first names; places, tags, and tag classes number in the thousands.
+ * Encoding these values as small ints lets the caches store an int per
+ * value and the queries compare codes instead of strings, and lets
+ * accessors return one canonical String per value instead of a fresh
+ * copy per read.
+ *
+ * All dictionaries are filled here, from a scan of the persons, the
+ * messages, and the named nodes.  Update query 1 extends the gender,
+ * browser, language, and first name dictionaries as it adds persons,
+ * and update queries 6 and 7 extend the browser and language
+ * dictionaries as they add messages.  The name dictionary is filled
+ * once: the update queries never add places, tags, or tag classes.
+ * Names are encoded in lexicographic order, so comparing the codes of
+ * two names orders them as String.compareTo() would.
+ */
+public class Dictionaries {
+
+    /** The dictionaries built so far, one per database. */
+    private static final Map<GraphDatabaseService, Dictionaries> dictionaries = new ConcurrentHashMap<>();
+
+    private static final Label[] MESSAGE_LABELS = {
+        LdbcUtils.NodeLabel.POST, LdbcUtils.NodeLabel.COMMENT
+    };
+
+    private static final Label[] NAMED_LABELS = {
+        LdbcUtils.NodeLabel.PLACE, LdbcUtils.NodeLabel.TAG, LdbcUtils.NodeLabel.TAG_CLASS
+    };
+
+    private final Dictionary genders = new Dictionary();
+    private final Dictionary browsers = new Dictionary();
+    private final Dictionary languages = new Dictionary();
+    private final Dictionary firstNames = new Dictionary();
+    private final Dictionary names = new Dictionary();
+
+    /* Node ID of a place, tag, or tag class to the code of its name. */
+    private final LongIntMap nameCodes;
+
+    /**
+     * Build the dictionaries of a database and make them available to
+     * the caches and accessors.
+     * @return the new dictionaries
+     */
+    public static Dictionaries build(GraphDatabaseService db) {
+        Dictionaries d;
+        try (Transaction tx = db.beginTx()) {
+            d = new Dictionaries(db);
+        }
+        dictionaries.put(db, d);
+        return d;
+    }
+
+    /** @return the dictionaries built for the database or null if none exist */
+    public static Dictionaries of(GraphDatabaseService db) {
+        return dictionaries.get(db);
+    }
+
+    private Dictionaries(GraphDatabaseService db) {
+        ResourceIterator<Node> allPersons = db.findNodes(LdbcUtils.NodeLabel.PERSON);
+        while (allPersons.hasNext()) {
+            Node person = allPersons.next();
+            encodePerson(person.getProperty(LdbcUtils.Keys.FIRSTNAME, null),
+                         person.getProperty(LdbcUtils.Keys.GENDER, null),
+                         person.getProperty(LdbcUtils.Keys.BROWSERUSED, null),
+                         person.getProperty(LdbcUtils.Keys.LANGUAGES, null));
+        }
+        allPersons.close();
+
+        for (Label label : MESSAGE_LABELS) {
+            ResourceIterator<Node> allMessages = db.findNodes(label);
+            while (allMessages.hasNext()) {
+                Node message = allMessages.next();
+                encodeMessage(message.getProperty(LdbcUtils.Keys.BROWSERUSED, null),
+                              message.getProperty(LdbcUtils.Keys.LANGUAGE, null));
+            }
+            allMessages.close();
+        }
+
+        LongList nodes = new LongList(1024);
+        List<String> nodeNames = new ArrayList<>(1024);
+        for (Label label : NAMED_LABELS) {
+            ResourceIterator<Node> allNodes = db.findNodes(label);
+            while (allNodes.hasNext()) {
+                Node node = allNodes.next();
+                nodes.add(node.getId());
+                nodeNames.add(node.getProperty(LdbcUtils.Keys.NAME).toString());
+            }
+            allNodes.close();
+        }
+
+        // Encode the names in order.
+        for (String name : new TreeSet<String>(nodeNames))
+            names.encode(name);
+
+        nameCodes = new LongIntMap(nodes.size(), Dictionary.NONE);
+        for (int i = 0; i < nodes.size(); i++)
+            nameCodes.put(nodes.get(i), names.find(nodeNames.get(i)));
+    }
+
+    /**
+     * Record the values of a person added after the dictionaries were
+     * built.
+     * @param properties  The person's in-node properties
+     */
+    public void addPerson(Map<String, Object> properties) {
+        encodePerson(properties.get(LdbcUtils.Keys.FIRSTNAME),
+                     properties.get(LdbcUtils.Keys.GENDER),
+                     properties.get(LdbcUtils.Keys.BROWSERUSED),
+                     properties.get(LdbcUtils.Keys.LANGUAGES));
+    }
+
+    /**
+     * Record the values of a message added after the dictionaries
+     * were built.
+     * @param properties  The message's in-node properties
+     */
+    public void addMessage(Map<String, Object> properties) {
+        encodeMessage(properties.get(LdbcUtils.Keys.BROWSERUSED),
+                      properties.get(LdbcUtils.Keys.LANGUAGE));
+    }
+
+    private void encodePerson(Object firstName, Object gender, Object browserUsed, Object personLanguages) {
+        if (firstName != null)
+            firstNames.encode(firstName.toString());
+        if (gender != null)
+            genders.encode(gender.toString());
+        if (browserUsed != null)
+            browsers.encode(browserUsed.toString());
+        if (personLanguages != null)
+            for (String language : (String[])personLanguages)
+                languages.encode(language);
+    }
+
+    private void encodeMessage(Object browserUsed, Object language) {
+        if (browserUsed != null)
+            browsers.encode(browserUsed.toString());
+        if (language != null)
+            languages.encode(language.toString());
+    }
+
+    /** @return the dictionary of person genders */
+    public Dictionary genders() { return genders; }
+
+    /** @return the dictionary of the browsers of persons and messages */
+    public Dictionary browsers() { return browsers; }
+
+    /** @return the dictionary of person and post languages */
+    public Dictionary languages() { return languages; }
+
+    /** @return the dictionary of person first names */
+    public Dictionary firstNames() { return firstNames; }
+
+    /** @return the dictionary of place, tag, and tag class names */
+    public Dictionary names() { return names; }
+
+    /**
+     * @return the code of the name of a place, tag, or tag class or
+     *         Dictionary.NONE for any other node
+     */
+    public int nameCode(long nodeId) {
+        return nameCodes.get(nodeId);
+    }
+
+}
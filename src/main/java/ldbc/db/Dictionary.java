@@ -0,0 +1,107 @@
+/**
+ * Dictionary encoding of the values of a string property.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A two-way mapping between the distinct values of a property and
+ * small dense int codes.
+ *
+ * Codes are handed out in the order values are first encoded,
+ * starting at 0, and never change.  Each value is kept once; decoding
+ * a code returns that canonical instance, so equal values decode to
+ * the same String.
+ *
+ * The dictionary is safe to use from multiple threads.
+ */
+public class Dictionary {
+
+    /** The code of values never encoded. */
+    public static final int NONE = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+
+    /** @return the number of distinct values encoded so far */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the code of the value or NONE if never encoded */
+    public int find(String value) {
+        lock.readLock().lock();
+        try {
+            Integer code = codes.get(value);
+            return code == null ? NONE : code;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the code of the value, assigning the next one if new */
+    public int encode(String value) {
+        int code = find(value);
+        if (code != NONE)
+            return code;
+        lock.writeLock().lock();
+        try {
+            // Another thread may have encoded the value meanwhile.
+            Integer existing = codes.get(value);
+            if (existing != null)
+                return existing;
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size] = value;
+            codes.put(value, size);
+            return size++;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the canonical instance of the value or the value itself
+     *         if never encoded
+     */
+    public String canonical(String value) {
+        lock.readLock().lock();
+        try {
+            Integer code = codes.get(value);
+            return code == null ? value : values[code];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the canonical instance of the value with the code */
+    public String decode(int code) {
+        lock.readLock().lock();
+        try {
+            return values[code];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Intra-query parallelism over a group of persons.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+
+/**
+ * A fork-join pool splitting the per-person work of a query into
+ * slices.
+ *
+ * Several complex read queries visit every friend and friend of a
+ * friend of a person one after the other.  When enabled for a
+ * database, map() cuts such a group into contiguous slices and runs
+ * them on a shared pool, each in a read transaction of its own; the
+ * query then merges the partial results.  When disabled, or when the
+ * group is too small to be worth splitting, map() runs the whole
+ * group as one slice on the calling thread, inside the caller's
+ * transaction.  The queries therefore have a single code path.
+ *
+ * Tasks must only read the database and, when there are several
+ * slices, must not share mutable state; each returns its own partial
+ * result.
+ */
+public class FanOut {
+
+    /** The pools enabled so far, one per database. */
+    private static final Map<GraphDatabaseService, FanOut> fanOuts = new ConcurrentHashMap<>();
+
+    /** The fewest persons worth handing to a worker. */
+    private static final int MIN_PERSONS_PER_SLICE = 64;
+
+    /** The work done on one slice of a group. */
+    public interface Task<R> {
+        /** @return the partial result for positions [start, end) */
+        R run(int start, int end);
+    }
+
+    private final GraphDatabaseService db;
+    private final ForkJoinPool pool;
+
+    private FanOut(GraphDatabaseService db, int parallelism) {
+        this.db = db;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /** Run queries on the database with up to parallelism workers. */
+    public static void enable(GraphDatabaseService db, int parallelism) {
+        fanOuts.put(db, new FanOut(db, parallelism));
+    }
+
+    /**
+     * Run a task over a group of persons, in slices if worthwhile.
+     * @param db    A database handle
+     * @param size  The number of persons in the group
+     * @param task  The work to do on each slice
+     * @return the partial results, one per slice, in slice order
+     */
+    public static <R> List<R> map(GraphDatabaseService db, int size, Task<R> task) {
+        int slices = slices(db, size);
+        if (slices < 2)
+            return Collections.singletonList(task.run(0, size));
+        return fanOuts.get(db).run(size, slices, task);
+    }
+
+    /**
+     * @return the number of slices map() cuts a group of the given
+     *         size into; with one slice, the task runs on the calling
+     *         thread and may write straight into the caller's state
+     */
+    public static int slices(GraphDatabaseService db, int size) {
+        FanOut fanOut = fanOuts.get(db);
+        return fanOut == null ? 1 : Math.max(1, Math.min(fanOut.pool.getParallelism(), size / MIN_PERSONS_PER_SLICE));
+    }
+
+    private <R> List<R> run(int size, int slices, final Task<R> task) {
+        List<Callable<R>> callables = new ArrayList<>(slices);
+        for (int k = 0; k < slices; k++) {
+            final int start = (int)((long)size * k / slices);
+            final int end = (int)((long)size * (k + 1) / slices);
+            callables.add(new Callable<R>() {
+                    @Override
+                    public R call() {
+                        try (Transaction tx = db.beginTx()) {
+                            return task.run(start, end);
+                        }
+                    }
+                });
+        }
+
+        List<R> partials = new ArrayList<>(slices);
+        try {
+            for (Future<R> future : pool.invokeAll(callables))
+                partials.add(future.get());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+        return partials;
+    }
+
+}
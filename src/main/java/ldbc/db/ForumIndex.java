@@ -0,0 +1,190 @@
+/**
+ * In-memory forum memberships and forum of every post.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.DatedSort;
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongLongMap;
+
+/**
+ * Each person's forum memberships sorted by join date, and the forum
+ * containing each post.
+ *
+ * A person's memberships are a pair of primitive arrays holding the
+ * join dates and forum node IDs, sorted by ascending join date; the
+ * forums a person joined after a date are a suffix found by binary
+ * search.  The forum of a post is a hash probe from the post's node
+ * ID; comments have no entry.
+ *
+ * The index is safe to use from multiple threads.  Update query 5
+ * records new memberships and update query 6 new posts after their
+ * transaction commits.
+ */
+public class ForumIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, ForumIndex> indexes = new ConcurrentHashMap<>();
+
+    private static final long[] NO_FORUMS = new long[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongMap forumsOfPosts = new LongLongMap(1024, -1);
+
+    /* One membership list per person ordinal; sizes[i] entries are in use. */
+    private final LongIntMap ordinals = new LongIntMap(1024, -1);
+    private long[][] joinDates = new long[16][];
+    private long[][] forums = new long[16][];
+    private int[] sizes = new int[16];
+    private int personCount;
+
+    /**
+     * Build the forum index of a database and make it available to
+     * the queries.
+     * @return the new index
+     */
+    public static ForumIndex build(GraphDatabaseService db) {
+        ForumIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new ForumIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static ForumIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private ForumIndex(GraphDatabaseService db) {
+        ResourceIterator<Node> allForums = db.findNodes(LdbcUtils.NodeLabel.FORUM);
+        while (allForums.hasNext()) {
+            Node forum = allForums.next();
+            long forumNodeId = forum.getId();
+            for (Relationship edgeToMember : forum.getRelationships(Direction.OUTGOING, LdbcUtils.EdgeType.HAS_MEMBER))
+                append(edgeToMember.getEndNode().getId(), forumNodeId,
+                       (long)edgeToMember.getProperty(LdbcUtils.Keys.JOINDATE));
+            for (Relationship edgeToPost : forum.getRelationships(Direction.OUTGOING, LdbcUtils.EdgeType.CONTAINER_OF))
+                forumsOfPosts.put(edgeToPost.getEndNode().getId(), forumNodeId);
+        }
+        allForums.close();
+
+        for (int ordinal = 0; ordinal < personCount; ordinal++)
+            DatedSort.sort(joinDates[ordinal], forums[ordinal], sizes[ordinal]);
+    }
+
+    /** Record a membership added after the index was built. */
+    public void addMembership(long personNodeId, long forumNodeId, long joinDate) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = append(personNodeId, forumNodeId, joinDate);
+
+            // Shift any later membership up one slot.
+            long[] personJoinDates = joinDates[ordinal];
+            long[] personForums = forums[ordinal];
+            int position = sizes[ordinal] - 1;
+            while (position > 0 && personJoinDates[position - 1] > joinDate) {
+                personJoinDates[position] = personJoinDates[position - 1];
+                personForums[position] = personForums[position - 1];
+                position--;
+            }
+            personJoinDates[position] = joinDate;
+            personForums[position] = forumNodeId;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Record a post added after the index was built. */
+    public void addPost(long postNodeId, long forumNodeId) {
+        lock.writeLock().lock();
+        try {
+            forumsOfPosts.put(postNodeId, forumNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the node IDs of the forums the person joined after date */
+    public long[] findForumsJoinedAfter(long personNodeId, long date) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            if (ordinal < 0)
+                return NO_FORUMS;
+
+            // Find the first membership after date.
+            long[] personJoinDates = joinDates[ordinal];
+            int low = 0;
+            int high = sizes[ordinal];
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (personJoinDates[middle] <= date)
+                    low = middle + 1;
+                else
+                    high = middle;
+            }
+            return low == sizes[ordinal] ? NO_FORUMS : Arrays.copyOfRange(forums[ordinal], low, sizes[ordinal]);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the node ID of the forum containing the post or -1 if not a post */
+    public long findForum(long postNodeId) {
+        lock.readLock().lock();
+        try {
+            return forumsOfPosts.get(postNodeId);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the ordinal of the person */
+    private int append(long personNodeId, long forumNodeId, long joinDate) {
+        int ordinal = ordinals.get(personNodeId);
+        if (ordinal < 0) {
+            ordinal = personCount++;
+            if (ordinal == sizes.length) {
+                int capacity = ordinal * 2;
+                joinDates = Arrays.copyOf(joinDates, capacity);
+                forums = Arrays.copyOf(forums, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            ordinals.put(personNodeId, ordinal);
+            joinDates[ordinal] = new long[4];
+            forums[ordinal] = new long[4];
+        }
+        int size = sizes[ordinal];
+        if (size == joinDates[ordinal].length) {
+            joinDates[ordinal] = Arrays.copyOf(joinDates[ordinal], size * 2);
+            forums[ordinal] = Arrays.copyOf(forums[ordinal], size * 2);
+        }
+        joinDates[ordinal][size] = joinDate;
+        forums[ordinal][size] = forumNodeId;
+        sizes[ordinal] = size + 1;
+        return ordinal;
+    }
+
+}
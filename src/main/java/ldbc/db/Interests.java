@@ -0,0 +1,80 @@
+/**
+ * The interests of a person.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.LongSet;
+
+/**
+ * The set of tags a person is interested in, for scoring the posts
+ * of other persons against it.
+ *
+ * Obtained from the post tag index, the set is a bitset over tag
+ * ordinals and scoring a person scans the summary of the person's
+ * posts.  Otherwise, the set holds tag node IDs and scoring visits
+ * the person's posts and their tags.
+ */
+public class Interests {
+    private final PostTagIndex index;
+    private final long[] tagSet;
+    private final LongSet tags;
+
+    /** Collect the interests of a person. */
+    Interests(GraphDatabaseService db, Node person) {
+        this.index = PostTagIndex.of(db);
+        this.tagSet = index == null ? null : index.newTagSet();
+        this.tags = index == null ? new LongSet(16) : null;
+        for (Relationship edgeToTag : person.getRelationships(Direction.OUTGOING, LdbcUtils.EdgeType.HAS_INTEREST)) {
+            long tagNodeId = edgeToTag.getEndNode().getId();
+            if (index != null)
+                index.addTag(tagSet, tagNodeId);
+            else
+                tags.add(tagNodeId);
+        }
+    }
+
+    /**
+     * Score the posts of a person against the interests.
+     * @return the number of the creator's posts with a tag of
+     *         interest minus the number of those without
+     */
+    public int score(Node creator) {
+        if (index != null) {
+            int common = index.countPostsSharingTags(creator.getId(), tagSet);
+            return common - (index.countPosts(creator.getId()) - common);
+        }
+
+        int common = 0;
+        int uncommon = 0;
+        for (Relationship edgeFromMessage : creator.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_CREATOR)) {
+            Node message = edgeFromMessage.getStartNode();
+
+            // Skip comments.
+            if (!LdbcUtils.isMessagePost(message))
+                continue;
+
+            // Look for a tag of interest among the post's tags.
+            boolean notFound = true;
+            for (Relationship edgeToTag : message.getRelationships(Direction.OUTGOING, LdbcUtils.EdgeType.HAS_TAG)) {
+                if (tags.contains(edgeToTag.getEndNode().getId())) {
+                    notFound = false;
+                    break;
+                }
+            }
+            if (notFound)
+                uncommon++;
+            else
+                common++;
+        }
+        return common - uncommon;
+    }
+
+}
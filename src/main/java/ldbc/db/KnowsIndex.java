@@ -0,0 +1,328 @@
+/**
+ * In-memory snapshot of the KNOWS graph.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.ResourceIterator;
+
+import ldbc.helpers.IntList;
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongList;
+
+/**
+ * A compact, primitive adjacency structure of the KNOWS edges.
+ *
+ * Each person gets a dense ordinal.  The friendships present when
+ * the index is built are stored in compressed sparse rows (one offset
+ * per person into a single array of friend ordinals); friendships
+ * added afterwards go to small per-person overflow rows.  Walking the
+ * index allocates no Neo4j objects at all.  Long rows built up front
+ * also get a sorted copy, so testing a friendship with a popular
+ * person is a binary search.
+ *
+ * KNOWS edges are directed in the store but the benchmark treats them
+ * as symmetric, so each friendship appears in both persons' rows.
+ *
+ * The index is safe to use from multiple threads.  Update queries
+ * record new persons and friendships after their transaction commits.
+ */
+public class KnowsIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, KnowsIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* Mapping between person node IDs and ordinals. */
+    private final LongIntMap ordinals;
+    private long[] nodeIds;
+    private int personCount;
+
+    /* Friendships present at build time, as compressed sparse rows. */
+    private final int baseCount;
+    private final int[] offsets;
+    private final int[] friends;
+
+    /* Friendships added since, one row per ordinal (or null). */
+    private int[][] addedFriends;
+
+    /* Sorted copies of the rows at least SORTED_ROW_MIN long, one per
+     * ordinal present at build time (or null). */
+    private static final int SORTED_ROW_MIN = 32;
+    private final int[][] sortedFriends;
+
+    /**
+     * Build the KNOWS index of a database and make it available to
+     * the queries.
+     * @return the new index
+     */
+    public static KnowsIndex build(GraphDatabaseService db) {
+        KnowsIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new KnowsIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static KnowsIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private KnowsIndex(GraphDatabaseService db) {
+        // Assign an ordinal to every person.
+        LongList persons = new LongList(1024);
+        ResourceIterator<Node> allPersons = db.findNodes(LdbcUtils.NodeLabel.PERSON);
+        while (allPersons.hasNext())
+            persons.add(allPersons.next().getId());
+        allPersons.close();
+
+        personCount = persons.size();
+        baseCount = personCount;
+        nodeIds = persons.toArray();
+        ordinals = new LongIntMap(personCount, -1);
+        for (int ordinal = 0; ordinal < personCount; ordinal++)
+            ordinals.put(nodeIds[ordinal], ordinal);
+
+        // Lay out each person's friends one row after the other.
+        offsets = new int[personCount + 1];
+        IntList allFriends = new IntList(personCount * 4);
+        for (int ordinal = 0; ordinal < personCount; ordinal++) {
+            Node person = db.getNodeById(nodeIds[ordinal]);
+            for (Relationship edge : person.getRelationships(Direction.BOTH, LdbcUtils.EdgeType.KNOWS)) {
+                int friend = ordinals.get(edge.getOtherNode(person).getId());
+                if (friend >= 0)
+                    allFriends.add(friend);
+            }
+            offsets[ordinal + 1] = allFriends.size();
+        }
+        friends = allFriends.toArray();
+        addedFriends = new int[personCount][];
+
+        // Sort a copy of the long rows for areFriends().
+        sortedFriends = new int[personCount][];
+        for (int ordinal = 0; ordinal < personCount; ordinal++)
+            if (offsets[ordinal + 1] - offsets[ordinal] >= SORTED_ROW_MIN) {
+                sortedFriends[ordinal] = Arrays.copyOfRange(friends, offsets[ordinal], offsets[ordinal + 1]);
+                Arrays.sort(sortedFriends[ordinal]);
+            }
+    }
+
+    /** Record a person added after the index was built. */
+    public void addPerson(long personNodeId) {
+        lock.writeLock().lock();
+        try {
+            ordinalOrAdd(personNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Record a friendship added after the index was built. */
+    public void addFriendship(long person1NodeId, long person2NodeId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal1 = ordinalOrAdd(person1NodeId);
+            int ordinal2 = ordinalOrAdd(person2NodeId);
+            appendFriend(ordinal1, ordinal2);
+            appendFriend(ordinal2, ordinal1);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return true if the two persons know each other */
+    public boolean areFriends(long person1NodeId, long person2NodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal1 = ordinals.get(person1NodeId);
+            int ordinal2 = ordinals.get(person2NodeId);
+            if (ordinal1 < 0 || ordinal2 < 0)
+                return false;
+
+            // Friendships appear in both rows; search the shorter.
+            if (offsetEnd(ordinal2) - offset(ordinal2) < offsetEnd(ordinal1) - offset(ordinal1)) {
+                int ordinal = ordinal1;
+                ordinal1 = ordinal2;
+                ordinal2 = ordinal;
+            }
+            int[] sorted = ordinal1 < baseCount ? sortedFriends[ordinal1] : null;
+            if (sorted != null) {
+                if (Arrays.binarySearch(sorted, ordinal2) >= 0)
+                    return true;
+            }
+            else {
+                for (int j = offset(ordinal1), end = offsetEnd(ordinal1); j < end; j++)
+                    if (friends[j] == ordinal2)
+                        return true;
+            }
+            int[] added = added(ordinal1);
+            if (added != null)
+                for (int friend : added)
+                    if (friend == ordinal2)
+                        return true;
+            return false;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collect the persons at most maxDistance KNOWS edges away from
+     * the given person.
+     * @return the circle of friends, empty if the person is unknown
+     */
+    public CircleOfFriends findCircleOfFriends(long personNodeId, int maxDistance) {
+        return findCircleOfFriends(personNodeId, maxDistance, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Collect the persons at most maxDistance KNOWS edges away from
+     * the given person who pass a filter, stopping after the first
+     * distance at which at least limit persons passed.
+     * @param filter  The filter or null to accept every person
+     * @return the circle of friends, empty if the person is unknown
+     */
+    public CircleOfFriends findCircleOfFriends(long personNodeId, int maxDistance,
+                                               CircleOfFriends.Filter filter, int limit) {
+        lock.readLock().lock();
+        try {
+            int[] ends = new int[maxDistance];
+            int start = ordinals.get(personNodeId);
+            if (start < 0)
+                return new CircleOfFriends(new long[0], ends);
+
+            // The visit order doubles as the breadth-first queue; its
+            // first element is the person.
+            long[] visited = new long[(personCount + 63) >>> 6];
+            IntList order = new IntList();
+            LongList circle = new LongList();
+            visit(visited, start);
+            order.add(start);
+            int levelStart = 0;
+            for (int distance = 1; distance <= maxDistance; distance++) {
+                int levelEnd = order.size();
+
+                // Farther persons cannot make the cut once enough
+                // nearer ones passed.
+                if (circle.size() >= limit) {
+                    ends[distance - 1] = circle.size();
+                    continue;
+                }
+                for (int i = levelStart; i < levelEnd; i++) {
+                    int ordinal = order.get(i);
+                    for (int j = offset(ordinal), end = offsetEnd(ordinal); j < end; j++)
+                        if (visit(visited, friends[j]))
+                            order.add(friends[j]);
+                    int[] added = added(ordinal);
+                    if (added != null)
+                        for (int friend : added)
+                            if (visit(visited, friend))
+                                order.add(friend);
+                }
+
+                // Filter the persons just reached.
+                for (int i = levelEnd; i < order.size(); i++) {
+                    long nodeId = nodeIds[order.get(i)];
+                    if (filter == null || filter.accept(nodeId))
+                        circle.add(nodeId);
+                }
+                ends[distance - 1] = circle.size();
+                levelStart = levelEnd;
+            }
+            return new CircleOfFriends(circle.toArray(), ends);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Append the node IDs of a person's friends to a list.
+     *
+     * An unknown person has no friends.
+     */
+    void findFriends(long personNodeId, LongList friendNodeIds) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            if (ordinal < 0)
+                return;
+            for (int j = offset(ordinal), end = offsetEnd(ordinal); j < end; j++)
+                friendNodeIds.add(nodeIds[friends[j]]);
+            int[] added = added(ordinal);
+            if (added != null)
+                for (int friend : added)
+                    friendNodeIds.add(nodeIds[friend]);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* Raw accessors for graph algorithms in this package.  Callers
+     * must hold the read lock. */
+
+    ReadWriteLock lock() { return lock; }
+    int personCount() { return personCount; }
+    int ordinal(long personNodeId) { return ordinals.get(personNodeId); }
+    long nodeId(int ordinal) { return nodeIds[ordinal]; }
+    int offset(int ordinal) { return ordinal < baseCount ? offsets[ordinal] : 0; }
+    int offsetEnd(int ordinal) { return ordinal < baseCount ? offsets[ordinal + 1] : 0; }
+    int friend(int position) { return friends[position]; }
+    int[] added(int ordinal) { return addedFriends[ordinal]; }
+
+    /** @return true if the ordinal had not been visited yet */
+    private static boolean visit(long[] visited, int ordinal) {
+        long bit = 1L << ordinal;
+        if ((visited[ordinal >>> 6] & bit) != 0)
+            return false;
+        visited[ordinal >>> 6] |= bit;
+        return true;
+    }
+
+    private int ordinalOrAdd(long personNodeId) {
+        int ordinal = ordinals.get(personNodeId);
+        if (ordinal >= 0)
+            return ordinal;
+        ordinal = personCount++;
+        if (ordinal == nodeIds.length) {
+            nodeIds = Arrays.copyOf(nodeIds, Math.max(16, ordinal * 2));
+            addedFriends = Arrays.copyOf(addedFriends, nodeIds.length);
+        }
+        nodeIds[ordinal] = personNodeId;
+        ordinals.put(personNodeId, ordinal);
+        return ordinal;
+    }
+
+    private void appendFriend(int ordinal, int friend) {
+        // Rows stay exact-size; friendships are added rarely.
+        int[] row = addedFriends[ordinal];
+        if (row == null)
+            row = new int[] { friend };
+        else {
+            row = Arrays.copyOf(row, row.length + 1);
+            row[row.length - 1] = friend;
+        }
+        addedFriends[ordinal] = row;
+    }
+
+}
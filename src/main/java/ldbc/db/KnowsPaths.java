@@ -0,0 +1,314 @@
+/**
+ * Shortest paths over KNOWS edges.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.IntList;
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongList;
+import ldbc.helpers.LongSet;
+
+/**
+ * Bidirectional breadth-first search between two persons.
+ *
+ * Both searches advance one full level at a time, always expanding
+ * the smaller frontier.  The first time a level of one search reaches
+ * a person already seen by the other, the two balls around the end
+ * points touch and the path length is the sum of both depths.  Unlike
+ * a single-direction traversal, the search stops as soon as either
+ * frontier runs dry, so disconnected persons are detected without
+ * walking a whole component.
+ *
+ * Enumerating all shortest paths follows the same scheme but keeps
+ * the distance of every visited person on both sides and finishes
+ * the level on which the searches meet.  Each shortest path crosses
+ * exactly one person of that level seen by both sides, so the paths
+ * are the concatenations of the shortest paths from the first person
+ * to a meeting person with those from the meeting person to the
+ * second person.
+ */
+class KnowsPaths {
+
+    /** A source of friends, either the KNOWS index or the store. */
+    interface Friends {
+        /** Append the node IDs of a person's friends to a list. */
+        void find(long personNodeId, LongList friendNodeIds);
+    }
+
+    /** @return the friends recorded in the KNOWS index */
+    static Friends friendsIn(final KnowsIndex index) {
+        return new Friends() {
+            @Override
+            public void find(long personNodeId, LongList friendNodeIds) {
+                index.findFriends(personNodeId, friendNodeIds);
+            }
+        };
+    }
+
+    /** @return the friends found by walking KNOWS edges */
+    static Friends friendsIn(final GraphDatabaseService db) {
+        return new Friends() {
+            @Override
+            public void find(long personNodeId, LongList friendNodeIds) {
+                Node person = db.getNodeById(personNodeId);
+                for (Relationship edge : person.getRelationships(Direction.BOTH, LdbcUtils.EdgeType.KNOWS))
+                    friendNodeIds.add(edge.getOtherNode(person).getId());
+            }
+        };
+    }
+
+    /**
+     * Compute the shortest path length using the KNOWS index.
+     * @return the number of edges or -1 if none of at most maxLength edges exists
+     */
+    static int shortestPathLength(KnowsIndex index,
+                                  long person1NodeId, long person2NodeId,
+                                  int maxLength) {
+        if (person1NodeId == person2NodeId)
+            return 0;
+        index.lock().readLock().lock();
+        try {
+            int start1 = index.ordinal(person1NodeId);
+            int start2 = index.ordinal(person2NodeId);
+            if (start1 < 0 || start2 < 0)
+                return -1;
+
+            int words = (index.personCount() + 63) >>> 6;
+            long[] visited1 = new long[words];
+            long[] visited2 = new long[words];
+            IntList frontier1 = new IntList();
+            IntList frontier2 = new IntList();
+            IntList next = new IntList();
+            mark(visited1, start1);
+            mark(visited2, start2);
+            frontier1.add(start1);
+            frontier2.add(start2);
+
+            for (int length = 1; length <= maxLength; length++) {
+                // Expand the smaller side; swap roles so that side 1
+                // is always the one being expanded.
+                if (frontier1.size() > frontier2.size()) {
+                    IntList frontier = frontier1; frontier1 = frontier2; frontier2 = frontier;
+                    long[] visited = visited1; visited1 = visited2; visited2 = visited;
+                }
+                next.clear();
+                for (int i = 0; i < frontier1.size(); i++) {
+                    int ordinal = frontier1.get(i);
+                    for (int j = index.offset(ordinal), end = index.offsetEnd(ordinal); j < end; j++) {
+                        int friend = index.friend(j);
+                        if (isMarked(visited2, friend))
+                            return length;
+                        if (!isMarked(visited1, friend)) {
+                            mark(visited1, friend);
+                            next.add(friend);
+                        }
+                    }
+                    int[] added = index.added(ordinal);
+                    if (added != null)
+                        for (int friend : added) {
+                            if (isMarked(visited2, friend))
+                                return length;
+                            if (!isMarked(visited1, friend)) {
+                                mark(visited1, friend);
+                                next.add(friend);
+                            }
+                        }
+                }
+                if (next.size() == 0)
+                    return -1;
+                IntList frontier = frontier1; frontier1 = next; next = frontier;
+            }
+            return -1;
+        }
+        finally {
+            index.lock().readLock().unlock();
+        }
+    }
+
+    /**
+     * Compute the shortest path length by walking KNOWS edges.
+     * @return the number of edges or -1 if none of at most maxLength edges exists
+     */
+    static int walkShortestPathLength(GraphDatabaseService db,
+                                      Node person1, Node person2,
+                                      int maxLength) {
+        if (person1.getId() == person2.getId())
+            return 0;
+
+        LongSet visited1 = new LongSet(64);
+        LongSet visited2 = new LongSet(64);
+        LongList frontier1 = new LongList();
+        LongList frontier2 = new LongList();
+        visited1.add(person1.getId());
+        visited2.add(person2.getId());
+        frontier1.add(person1.getId());
+        frontier2.add(person2.getId());
+
+        for (int length = 1; length <= maxLength; length++) {
+            if (frontier1.size() > frontier2.size()) {
+                LongList frontier = frontier1; frontier1 = frontier2; frontier2 = frontier;
+                LongSet visited = visited1; visited1 = visited2; visited2 = visited;
+            }
+            LongList next = new LongList();
+            for (int i = 0; i < frontier1.size(); i++) {
+                Node person = db.getNodeById(frontier1.get(i));
+                for (Relationship edge : person.getRelationships(Direction.BOTH, LdbcUtils.EdgeType.KNOWS)) {
+                    long friendId = edge.getOtherNode(person).getId();
+                    if (visited2.contains(friendId))
+                        return length;
+                    if (visited1.add(friendId))
+                        next.add(friendId);
+                }
+            }
+            if (next.size() == 0)
+                return -1;
+            frontier1 = next;
+        }
+        return -1;
+    }
+
+    /**
+     * Enumerate all shortest KNOWS paths between two persons.
+     * @return the paths as arrays of node IDs from person 1 to person
+     * 2, or an empty list if the persons are not connected
+     */
+    static List<long[]> allShortestPaths(Friends friends,
+                                         long person1NodeId, long person2NodeId) {
+        List<long[]> paths = new ArrayList<>();
+        if (person1NodeId == person2NodeId) {
+            paths.add(new long[] { person1NodeId });
+            return paths;
+        }
+
+        LongIntMap distances1 = new LongIntMap(64, -1);
+        LongIntMap distances2 = new LongIntMap(64, -1);
+        LongList frontier1 = new LongList();
+        LongList frontier2 = new LongList();
+        distances1.put(person1NodeId, 0);
+        distances2.put(person2NodeId, 0);
+        frontier1.add(person1NodeId);
+        frontier2.add(person2NodeId);
+        int depth1 = 0;
+        int depth2 = 0;
+
+        // Grow the smaller side one level at a time until a level
+        // reaches persons seen by the other side.
+        LongList meetingPersons = new LongList();
+        LongList candidates = new LongList();
+        while (meetingPersons.size() == 0) {
+            if (frontier1.size() == 0 || frontier2.size() == 0)
+                return paths;
+            boolean expand1 = frontier1.size() <= frontier2.size();
+            LongList frontier = expand1 ? frontier1 : frontier2;
+            LongIntMap distances = expand1 ? distances1 : distances2;
+            LongIntMap otherDistances = expand1 ? distances2 : distances1;
+            int depth = expand1 ? ++depth1 : ++depth2;
+
+            LongList next = new LongList();
+            for (int i = 0; i < frontier.size(); i++) {
+                candidates.clear();
+                friends.find(frontier.get(i), candidates);
+                for (int j = 0; j < candidates.size(); j++) {
+                    long friend = candidates.get(j);
+                    if (distances.containsKey(friend))
+                        continue;
+                    distances.put(friend, depth);
+                    if (otherDistances.containsKey(friend))
+                        meetingPersons.add(friend);
+                    else
+                        next.add(friend);
+                }
+            }
+            if (expand1)
+                frontier1 = next;
+            else
+                frontier2 = next;
+        }
+
+        // Walk back from each meeting person to both ends.
+        Map<Long, long[]> predecessors1 = new HashMap<>();
+        Map<Long, long[]> predecessors2 = new HashMap<>();
+        int length = depth1 + depth2;
+        for (int i = 0; i < meetingPersons.size(); i++) {
+            long meetingPerson = meetingPersons.get(i);
+            List<long[]> halves1 = new ArrayList<>();
+            List<long[]> halves2 = new ArrayList<>();
+            long[] half = new long[depth1 + 1];
+            collectHalves(friends, distances1, predecessors1, meetingPerson, depth1, half, halves1);
+            half = new long[depth2 + 1];
+            collectHalves(friends, distances2, predecessors2, meetingPerson, depth2, half, halves2);
+            for (long[] half1 : halves1)
+                for (long[] half2 : halves2) {
+                    // half1 runs from person 1 to the meeting person;
+                    // half2 runs from person 2 to the meeting person.
+                    long[] path = new long[length + 1];
+                    System.arraycopy(half1, 0, path, 0, depth1 + 1);
+                    for (int k = 0; k < depth2; k++)
+                        path[length - k] = half2[k];
+                    paths.add(path);
+                }
+        }
+        return paths;
+    }
+
+    /**
+     * Collect every shortest path from a search's origin to a person.
+     *
+     * The person sits at the given distance from the origin; half
+     * receives the path being built, stored origin first.
+     */
+    private static void collectHalves(Friends friends,
+                                      LongIntMap distances,
+                                      Map<Long, long[]> predecessors,
+                                      long person, int distance,
+                                      long[] half, List<long[]> halves) {
+        half[distance] = person;
+        if (distance == 0) {
+            halves.add(half.clone());
+            return;
+        }
+        for (long predecessor : findPredecessors(friends, distances, predecessors, person, distance))
+            collectHalves(friends, distances, predecessors, predecessor, distance - 1, half, halves);
+    }
+
+    /** @return the person's friends one step closer to the origin */
+    private static long[] findPredecessors(Friends friends,
+                                           LongIntMap distances,
+                                           Map<Long, long[]> predecessors,
+                                           long person, int distance) {
+        long[] known = predecessors.get(person);
+        if (known != null)
+            return known;
+        LongList candidates = new LongList();
+        LongList closer = new LongList();
+        friends.find(person, candidates);
+        for (int i = 0; i < candidates.size(); i++)
+            if (distances.get(candidates.get(i)) == distance - 1)
+                closer.add(candidates.get(i));
+        known = closer.toArray();
+        predecessors.put(person, known);
+        return known;
+    }
+
+    private static void mark(long[] visited, int ordinal) {
+        visited[ordinal >>> 6] |= 1L << ordinal;
+    }
+
+    private static boolean isMarked(long[] visited, int ordinal) {
+        return (visited[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+}
@@ -1,7 +1,7 @@
 /**
  * LDBC-specific extensions to Neo4j's interface.
  *
- * Copyright © 2016, 2018 Alain Kägi
+ * Copyright © 2016, 2018, 2026 Alain Kägi
  */
 
 package ldbc.db;
@@ -24,6 +24,8 @@ import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.graphdb.traversal.TraversalDescription;
 import org.neo4j.graphdb.traversal.Evaluators;
 
+import ldbc.helpers.LongList;
+
 public class LdbcUtils {
 
     /*
@@ -104,28 +106,177 @@ public class LdbcUtils {
 
     /* Node properties */
     public static long getId(Node node) { return (long)node.getProperty(Keys.ID); }
-    public static String getFirstName(Node person) { return person.getProperty(Keys.FIRSTNAME).toString(); }
-    public static String getLastName(Node person) { return person.getProperty(Keys.LASTNAME).toString(); }
-    public static String getGender(Node person) { return person.getProperty(Keys.GENDER).toString(); }
-    public static long getBirthday(Node person) { return (long)person.getProperty(Keys.BIRTHDAY); }
     public static long getCreationDate(Node node) { return (long)node.getProperty(Keys.CREATIONDATE); }
     public static String getLocationIp(Node node) { return node.getProperty(Keys.LOCATIONIP).toString(); }
-    public static String getBrowserUsed(Node node) { return node.getProperty(Keys.BROWSERUSED).toString(); }
-    public static String getLanguage(Node post) { return post.getProperty(Keys.LANGUAGE).toString(); }
     public static String getTitle(Node forum) { return forum.getProperty(Keys.TITLE).toString(); }
     public static String getType(Node place) { return place.getProperty(Keys.TYPE).toString(); }
-    public static String getName(Node node) { return node.getProperty(Keys.NAME).toString(); }
+
+    /*
+     * Browsers and languages
+     *
+     * Returned as the canonical String of the browser or language
+     * dictionary if one was built for the node's database.
+     */
+    public static String getBrowserUsed(Node node) {
+        Dictionaries dictionaries = Dictionaries.of(node.getGraphDatabase());
+        String browserUsed = node.getProperty(Keys.BROWSERUSED).toString();
+        return dictionaries == null ? browserUsed : dictionaries.browsers().canonical(browserUsed);
+    }
+
+    public static String getLanguage(Node post) {
+        Dictionaries dictionaries = Dictionaries.of(post.getGraphDatabase());
+        String language = post.getProperty(Keys.LANGUAGE).toString();
+        return dictionaries == null ? language : dictionaries.languages().canonical(language);
+    }
+
+    /*
+     * Names
+     *
+     * The names of places, tags, and tag classes come from the name
+     * dictionary if one was built for the node's database, as one
+     * canonical String per name; other names are read from the node.
+     */
+    public static String getName(Node node) {
+        Dictionaries dictionaries = Dictionaries.of(node.getGraphDatabase());
+        int code = dictionaries == null ? Dictionary.NONE : dictionaries.nameCode(node.getId());
+        return code != Dictionary.NONE ? dictionaries.names().decode(code) : node.getProperty(Keys.NAME).toString();
+    }
+
+    /**
+     * Get the code of the name of a place, tag, or tag class.  Codes
+     * order names as String.compareTo() would.
+     * @return the code or Dictionary.NONE if no dictionary was built
+     */
+    public static int getNameCode(Node node) {
+        Dictionaries dictionaries = Dictionaries.of(node.getGraphDatabase());
+        return dictionaries == null ? Dictionary.NONE : dictionaries.nameCode(node.getId());
+    }
+
+    /*
+     * Person properties
+     *
+     * Served from the person cache if one was built for the
+     * person's database; otherwise (or if the cache misses) read
+     * from the node.  First names, genders, browsers, and languages
+     * read from the node are returned as the canonical Strings of
+     * the dictionaries, if built.  The properties creationDate,
+     * locationIP, and browserUsed are shared with messages; their
+     * person accessors bear the word "Person" so message reads skip
+     * the cache probe.
+     */
+    public static String getFirstName(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        String firstName = cache == null ? null : cache.firstName(person.getId());
+        if (firstName != null)
+            return firstName;
+        Dictionaries dictionaries = Dictionaries.of(person.getGraphDatabase());
+        firstName = person.getProperty(Keys.FIRSTNAME).toString();
+        return dictionaries == null ? firstName : dictionaries.firstNames().canonical(firstName);
+    }
+
+    public static String getLastName(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        String lastName = cache == null ? null : cache.lastName(person.getId());
+        return lastName != null ? lastName : person.getProperty(Keys.LASTNAME).toString();
+    }
+
+    public static String getGender(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        String gender = cache == null ? null : cache.gender(person.getId());
+        if (gender != null)
+            return gender;
+        Dictionaries dictionaries = Dictionaries.of(person.getGraphDatabase());
+        gender = person.getProperty(Keys.GENDER).toString();
+        return dictionaries == null ? gender : dictionaries.genders().canonical(gender);
+    }
+
+    public static long getBirthday(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        long birthday = cache == null ? PersonCache.UNKNOWN : cache.birthday(person.getId());
+        return birthday != PersonCache.UNKNOWN ? birthday : (long)person.getProperty(Keys.BIRTHDAY);
+    }
+
+    /** @return the person's birthday encoded by toMonthDay() */
+    public static int getBirthdayMonthDay(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        int monthDay = cache == null ? -1 : cache.birthdayMonthDay(person.getId());
+        return monthDay != -1 ? monthDay : toMonthDay(getBirthday(person));
+    }
+
+    /**
+     * Encode the month and day of a date as month * 100 + day; for
+     * example, March 7 is 307.
+     * @param date  A date in milliseconds since 1/1/1970 00:00:00 GMT
+     * @return the encoded month and day in UTC
+     * Applies the proleptic Gregorian calendar without allocating a
+     * Calendar; see Howard Hinnant's days_from_civil/civil_from_days.
+     */
+    public static int toMonthDay(long date) {
+        // Count days from March 1 of year 0 so leap days fall at the
+        // end of each year.
+        long days = Math.floorDiv(date, 24L * 60 * 60 * 1000) + 719468;
+        long dayOfEra = days - Math.floorDiv(days, 146097) * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int)(dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int)(shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        return month * 100 + day;
+    }
+
+    /**
+     * Does a birthday fall between the 21st of a month and the 22nd
+     * of the next (exclusive), as complex read query 10 requires?
+     * @param monthDay  A birthday encoded by toMonthDay()
+     * @param month     A month (between 1 and 12 inclusive)
+     */
+    public static boolean isBirthdayInWindow(int monthDay, int month) {
+        int next = month % 12 + 1;
+        return monthDay >= month * 100 + 21 && monthDay < (month + 1) * 100
+            || monthDay > next * 100 && monthDay < next * 100 + 22;
+    }
+
+    public static long getPersonCreationDate(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        long creationDate = cache == null ? PersonCache.UNKNOWN : cache.creationDate(person.getId());
+        return creationDate != PersonCache.UNKNOWN ? creationDate : getCreationDate(person);
+    }
+
+    public static String getPersonLocationIp(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        String locationIp = cache == null ? null : cache.locationIp(person.getId());
+        return locationIp != null ? locationIp : getLocationIp(person);
+    }
+
+    public static String getPersonBrowserUsed(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        String browserUsed = cache == null ? null : cache.browserUsed(person.getId());
+        return browserUsed != null ? browserUsed : getBrowserUsed(person);
+    }
 
     public static ArrayList<String> getEmails(Node person) {
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        String[] emails = cache == null ? null : cache.emails(person.getId());
+        if (emails != null)
+            return new ArrayList<String>(Arrays.asList(emails));
         if (person.hasProperty(Keys.EMAILS))
             return new ArrayList<String>(Arrays.asList((String [])person.getProperty(Keys.EMAILS)));
         return new ArrayList<String>();
     }
 
     public static ArrayList<String> getLanguages(Node person) {
-        if (person.hasProperty(Keys.LANGUAGES))
-            return new ArrayList<String>(Arrays.asList((String [])person.getProperty(Keys.LANGUAGES)));
-        return new ArrayList<String>();
+        PersonCache cache = PersonCache.of(person.getGraphDatabase());
+        String[] languages = cache == null ? null : cache.languages(person.getId());
+        if (languages != null)
+            return new ArrayList<String>(Arrays.asList(languages));
+        if (!person.hasProperty(Keys.LANGUAGES))
+            return new ArrayList<String>();
+        languages = (String [])person.getProperty(Keys.LANGUAGES);
+        Dictionaries dictionaries = Dictionaries.of(person.getGraphDatabase());
+        ArrayList<String> result = new ArrayList<String>(languages.length);
+        for (String language : languages)
+            result.add(dictionaries == null ? language : dictionaries.languages().canonical(language));
+        return result;
     }
 
     /**
@@ -206,12 +357,27 @@ public class LdbcUtils {
     }
 
     /* Simple lookups */
-    /** @return a node or null if none matches the search criteria */
+    /**
+     * Look up a node by label and LDBC ID.
+     * @return a node or null if none matches the search criteria
+     * Use the node ID index if one was built for this database;
+     * otherwise (or if the index misses) search the schema index.
+     */
     public static Node findNodeByLabelAndId(GraphDatabaseService db,
                                             Label label,
                                             long id) {
+        NodeIdIndex index = NodeIdIndex.of(db);
+        if (index != null) {
+            long nodeId = index.find(label, id);
+            if (nodeId != -1)
+                return db.getNodeById(nodeId);
+        }
         ResourceIterator<Node> allMatchingNodes = db.findNodes(label, Keys.ID, id);
-        return allMatchingNodes.hasNext() ? allMatchingNodes.next() : null;
+        Node node = allMatchingNodes.hasNext() ? allMatchingNodes.next() : null;
+        allMatchingNodes.close();
+        if (index != null && node != null)
+            index.add(label, id, node.getId());
+        return node;
     }
 
     /** @return the node or null if none matches the search criteria */
@@ -269,8 +435,19 @@ public class LdbcUtils {
         return DbUtils.findNodeByLabelAndProperty(db, NodeLabel.TAG_CLASS, Keys.NAME, name);
     }
 
-    /** @return the node or null if none matches the search criteria */
+    /**
+     * Look up a post or comment by LDBC ID.
+     * @return the node or null if none matches the search criteria
+     * The node ID index resolves either kind in one probe; without
+     * it, search the comments first, then the posts.
+     */
     public static Node findMessageById(GraphDatabaseService db, long id) {
+        NodeIdIndex index = NodeIdIndex.of(db);
+        if (index != null) {
+            long message = index.findMessage(id);
+            if (message != -1)
+                return db.getNodeById(NodeIdIndex.messageNodeId(message));
+        }
         Node message = findCommentById(db, id);
         if (message == null)
             message = findPostById(db, id);
@@ -314,6 +491,22 @@ public class LdbcUtils {
         return findNeighbor(db, message, EdgeType.IS_LOCATED_IN, Direction.OUTGOING);
     }
 
+    /**
+     * Look up the country of a message.
+     * @return the country's node ID
+     * Use the message country index if one was built for this
+     * database; otherwise follow the IS_LOCATED_IN edge.
+     */
+    public static long findCountryIdOfMessage(GraphDatabaseService db, long messageNodeId) {
+        MessageCountryIndex index = MessageCountryIndex.of(db);
+        if (index != null) {
+            long countryNodeId = index.findCountry(messageNodeId);
+            if (countryNodeId != -1)
+                return countryNodeId;
+        }
+        return findCountryOfMessage(db, db.getNodeById(messageNodeId)).getId();
+    }
+
     /**
      * Look up the country in which an organization is located.
      *
@@ -323,6 +516,22 @@ public class LdbcUtils {
         return findNeighbor(db, organization, EdgeType.IS_LOCATED_IN, Direction.OUTGOING);
     }
 
+    /**
+     * Look up the country in which an organization is located.
+     * @return the country's node ID
+     * Use the place index if one was built for this database;
+     * otherwise follow the IS_LOCATED_IN edge.
+     */
+    public static long findCountryIdOfOrganization(GraphDatabaseService db, Node organization) {
+        PlaceIndex index = PlaceIndex.of(db);
+        if (index != null) {
+            long countryNodeId = index.findCountryOfOrganization(organization.getId());
+            if (countryNodeId != -1)
+                return countryNodeId;
+        }
+        return findCountryOfOrganization(db, organization).getId();
+    }
+
     /**
      * Look up the country in which the person is located.
      *
@@ -337,6 +546,22 @@ public class LdbcUtils {
                             EdgeType.IS_PART_OF, Direction.OUTGOING);
     }
 
+    /**
+     * Look up the country in which the person is located.
+     * @return the country's node ID
+     * Use the place index if one was built for this database;
+     * otherwise follow the IS_LOCATED_IN and IS_PART_OF edges.
+     */
+    public static long findCountryIdOfPerson(GraphDatabaseService db, Node person) {
+        PlaceIndex index = PlaceIndex.of(db);
+        if (index != null) {
+            long countryNodeId = index.findCountryOfPerson(person.getId());
+            if (countryNodeId != -1)
+                return countryNodeId;
+        }
+        return findCountryOfPerson(db, person).getId();
+    }
+
     /** @return the creator of a message or null if none can be found */
     public static Node findCreatorOfMessage(GraphDatabaseService db, Node message) {
         return findNeighbor(db, message, EdgeType.HAS_CREATOR, Direction.OUTGOING);
@@ -347,6 +572,58 @@ public class LdbcUtils {
         return findNeighbor(db, post, EdgeType.CONTAINER_OF, Direction.INCOMING);
     }
 
+    /**
+     * Look up the forum containing a message.
+     * @return the forum's node ID or -1 if the message is a comment
+     * Use the forum index if one was built for this database;
+     * otherwise follow the CONTAINER_OF edge.
+     */
+    public static long findForumIdOfMessage(GraphDatabaseService db, Node message) {
+        ForumIndex index = ForumIndex.of(db);
+        if (index != null)
+            return index.findForum(message.getId());
+        if (!isMessagePost(message))
+            return -1;
+        return findForumOfPost(db, message).getId();
+    }
+
+    /**
+     * Find the forums a person joined after a date.
+     * @return the forums' node IDs
+     * Use the forum index if one was built for this database;
+     * otherwise walk the HAS_MEMBER edges.
+     */
+    public static long[] findForumsJoinedAfter(GraphDatabaseService db, Node person, long date) {
+        ForumIndex index = ForumIndex.of(db);
+        if (index != null)
+            return index.findForumsJoinedAfter(person.getId(), date);
+        LongList forums = new LongList();
+        for (Relationship edgeFromForum : person.getRelationships(Direction.INCOMING, EdgeType.HAS_MEMBER)) {
+            if ((long)edgeFromForum.getProperty(Keys.JOINDATE) > date)
+                forums.add(edgeFromForum.getStartNode().getId());
+        }
+        return forums.toArray();
+    }
+
+    /**
+     * Look up the original post of a message.
+     * @return the post starting the message's thread, the message
+     * itself if it is a post
+     * Use the root post index if one was built for this database;
+     * otherwise walk the REPLY_OF edges.
+     */
+    public static Node findOriginalPost(GraphDatabaseService db, Node message) {
+        RootPostIndex index = RootPostIndex.of(db);
+        if (index != null) {
+            long postNodeId = index.find(message.getId());
+            if (postNodeId != -1)
+                return db.getNodeById(postNodeId);
+            if (isMessagePost(message))
+                return message;
+        }
+        return DbUtils.findProgenitor(db, message, EdgeType.REPLY_OF, Direction.OUTGOING);
+    }
+
     /**
      * Look up the original post of the given messageId.
      *
@@ -354,46 +631,219 @@ public class LdbcUtils {
      * original post.
      */
     public static Node findOriginalPostOfMessage(GraphDatabaseService db, long messageId) {
+        NodeIdIndex index = NodeIdIndex.of(db);
+        if (index != null) {
+            long entry = index.findMessage(messageId);
+            if (entry != -1) {
+                Node message = db.getNodeById(NodeIdIndex.messageNodeId(entry));
+                if (NodeIdIndex.isMessagePost(entry))
+                    return message;
+                return findOriginalPost(db, message);
+            }
+        }
         Node message = findCommentById(db, messageId);
         if (message == null)
             return findPostById(db, messageId);
         else
-            return DbUtils.findProgenitor(db, message, EdgeType.REPLY_OF, Direction.OUTGOING);
+            return findOriginalPost(db, message);
+    }
+
+    /**
+     * Collect the persons at most maxDistance KNOWS edges away.
+     * @return the person's circle of friends ordered by distance
+     * Use the KNOWS index if one was built for this database;
+     * otherwise walk the KNOWS edges.
+     */
+    public static CircleOfFriends findCircleOfFriends(GraphDatabaseService db,
+                                                      Node person,
+                                                      int maxDistance) {
+        KnowsIndex index = KnowsIndex.of(db);
+        if (index != null)
+            return index.findCircleOfFriends(person.getId(), maxDistance);
+        return CircleOfFriends.walk(db, person, maxDistance);
+    }
+
+    /**
+     * Collect the persons with a given first name at most maxDistance
+     * KNOWS edges away, stopping after the first distance at which at
+     * least limit of them were found.
+     * @return the matching persons ordered by distance
+     * Use the KNOWS index if one was built for this database;
+     * otherwise walk the KNOWS edges.  Use the person cache, if built,
+     * to compare first name codes instead of strings.
+     */
+    public static CircleOfFriends findFriendsWithFirstName(final GraphDatabaseService db,
+                                                           Node person,
+                                                           int maxDistance,
+                                                           final String firstName,
+                                                           int limit) {
+        final PersonCache cache = PersonCache.of(db);
+        final int firstNameCode = cache == null ? Dictionary.NONE : cache.findFirstNameCode(firstName);
+        CircleOfFriends.Filter hasFirstName = new CircleOfFriends.Filter() {
+            @Override
+            public boolean accept(long personNodeId) {
+                int code = cache == null ? Dictionary.NONE : cache.firstNameCode(personNodeId);
+                if (code != Dictionary.NONE)
+                    return code == firstNameCode;
+                return getFirstName(db.getNodeById(personNodeId)).equals(firstName);
+            }
+        };
+        KnowsIndex index = KnowsIndex.of(db);
+        if (index != null)
+            return index.findCircleOfFriends(person.getId(), maxDistance, hasFirstName, limit);
+        return CircleOfFriends.walk(db, person, maxDistance, hasFirstName, limit);
+    }
+
+    /**
+     * Compute the length of a shortest KNOWS path between two persons.
+     * @return the number of edges on the path, 0 if both persons are
+     * the same, or -1 if no path of at most maxLength edges exists
+     * Use the KNOWS index if one was built for this database;
+     * otherwise walk the KNOWS edges.
+     */
+    public static int findShortestPathLength(GraphDatabaseService db,
+                                             Node person1,
+                                             Node person2,
+                                             int maxLength) {
+        KnowsIndex index = KnowsIndex.of(db);
+        if (index != null)
+            return KnowsPaths.shortestPathLength(index, person1.getId(), person2.getId(), maxLength);
+        return KnowsPaths.walkShortestPathLength(db, person1, person2, maxLength);
+    }
+
+    /**
+     * Enumerate all shortest KNOWS paths between two persons.
+     * @return the paths as arrays of node IDs ordered from person 1 to
+     * person 2, or an empty list if the persons are not connected
+     */
+    public static List<long[]> findAllShortestPaths(GraphDatabaseService db,
+                                                    Node person1,
+                                                    Node person2) {
+        KnowsIndex index = KnowsIndex.of(db);
+        return KnowsPaths.allShortestPaths(
+            index != null ? KnowsPaths.friendsIn(index) : KnowsPaths.friendsIn(db),
+            person1.getId(),
+            person2.getId());
+    }
+
+    /**
+     * Find the newest messages created by some persons on or before
+     * a date.
+     * @return the newest limit messages plus those sharing the
+     * creation date of the last one, newest first
+     * Use the timeline index if one was built for this database;
+     * otherwise walk the persons' HAS_CREATOR edges.
+     */
+    public static RecentMessages findRecentMessages(GraphDatabaseService db,
+                                                    long[] creatorNodeIds,
+                                                    long maxDate,
+                                                    int limit) {
+        TimelineIndex index = TimelineIndex.of(db);
+        if (index != null)
+            return index.findRecentMessages(creatorNodeIds, maxDate, limit);
+        return RecentMessages.walk(db, creatorNodeIds, maxDate, limit);
+    }
+
+    /**
+     * Find the messages a person created between two dates.
+     * @return the node IDs of the messages created on or after
+     * startDate and before endDate
+     * Use the timeline index if one was built for this database;
+     * otherwise walk the person's HAS_CREATOR edges.
+     */
+    public static long[] findMessagesCreatedBetween(GraphDatabaseService db,
+                                                    Node person,
+                                                    long startDate,
+                                                    long endDate) {
+        TimelineIndex index = TimelineIndex.of(db);
+        if (index != null)
+            return index.findMessagesBetween(person.getId(), startDate, endDate);
+        LongList messages = new LongList();
+        for (Relationship edgeFromMessage : person.getRelationships(Direction.INCOMING, EdgeType.HAS_CREATOR)) {
+            Node message = edgeFromMessage.getStartNode();
+            long creationDate = getCreationDate(message);
+            if (startDate <= creationDate && creationDate < endDate)
+                messages.add(message.getId());
+        }
+        return messages.toArray();
+    }
+
+    /**
+     * Find the most recent like of the most recent likers of the
+     * messages a person created.
+     * @return the likes of limit likers plus those sharing the
+     * creation date of the last one, newest first
+     * Use the likes index if one was built for this database;
+     * otherwise walk the person's HAS_CREATOR and LIKES edges.
+     */
+    public static LikesReceived findRecentLikes(GraphDatabaseService db, Node person, int limit) {
+        LikesIndex index = LikesIndex.of(db);
+        if (index != null)
+            return index.findRecentLikes(person.getId(), limit);
+        return LikesReceived.walk(db, person, limit);
+    }
+
+    /**
+     * Find the most recent comments replying directly to the messages
+     * a person created.
+     * @return up to limit replies, newest first
+     * Use the replies index if one was built for this database;
+     * otherwise walk the person's HAS_CREATOR and REPLY_OF edges.
+     */
+    public static RecentReplies findRecentReplies(GraphDatabaseService db, Node person, int limit) {
+        RepliesIndex index = RepliesIndex.of(db);
+        if (index != null)
+            return index.findRecentReplies(person.getId(), limit);
+        return RecentReplies.walk(db, person, limit);
+    }
+
+    /**
+     * Collect the tags falling under a tag class or its descendants.
+     * Use the tag class index if one was built for this database;
+     * otherwise walk the class hierarchy.
+     */
+    public static TagsOfClass findTagsOfClass(GraphDatabaseService db, Node tagClass) {
+        TagClassIndex index = TagClassIndex.of(db);
+        if (index != null)
+            return index.findTagsOfClass(tagClass.getId());
+        return TagsOfClass.walk(db, tagClass);
+    }
+
+    /**
+     * Collect the tags a person is interested in.
+     * Use the post tag index if one was built for this database to
+     * score posts against them; otherwise visit the posts.
+     */
+    public static Interests findInterests(GraphDatabaseService db, Node person) {
+        return new Interests(db, person);
     }
 
     /* Connectivity questions */
-    /** @return does the given start node have candidate as neighbor? */
+    /**
+     * @return does the given start node have candidate as neighbor?
+     *
+     * The edges of whichever node has fewer of them are walked, so
+     * asking whether a message has a popular tag visits the message's
+     * few tags rather than the tag's many messages.  Neighbors are
+     * compared by node ID.
+     */
     public static boolean hasNeighbor(GraphDatabaseService db,
                                       Node startNode,
                                       Node possibleNeighbor,
                                       RelationshipType edgeType,
                                       Direction edgeDirection) {
-        Iterable<Relationship> allEdges = startNode.getRelationships(edgeDirection, edgeType);
-        switch (edgeDirection) {
-        case OUTGOING:
-            for (Relationship edgeToCandidateNeighbor : allEdges) {
-                Node candidateNeighbor = edgeToCandidateNeighbor.getEndNode();
-                if (getId(candidateNeighbor) == getId(possibleNeighbor))
-                    return true;
-            }
-            break;
-        case INCOMING:
-            for (Relationship edgeToCandidateNeighbor : allEdges) {
-                Node candidateNeighbor = edgeToCandidateNeighbor.getStartNode();
-                if (getId(candidateNeighbor) == getId(possibleNeighbor))
-                    return true;
-            }
-            break;
-        case BOTH:
-            for (Relationship edgeToCandidateNeighbor : allEdges) {
-                Node candidateNeighbor = edgeToCandidateNeighbor.getStartNode();
-                if (getId(candidateNeighbor) == getId(startNode))
-                    candidateNeighbor = edgeToCandidateNeighbor.getEndNode();
-                if (getId(candidateNeighbor) == getId(possibleNeighbor))
-                    return true;
-            }
-            break;
+        Node from = startNode;
+        Node to = possibleNeighbor;
+        Direction direction = edgeDirection;
+        if (possibleNeighbor.getDegree(edgeType, edgeDirection.reverse()) < startNode.getDegree(edgeType, edgeDirection)) {
+            from = possibleNeighbor;
+            to = startNode;
+            direction = edgeDirection.reverse();
         }
+        long toNodeId = to.getId();
+        for (Relationship edgeToCandidateNeighbor : from.getRelationships(direction, edgeType))
+            if (edgeToCandidateNeighbor.getOtherNode(from).getId() == toNodeId)
+                return true;
         return false;
     }
 
@@ -403,11 +853,9 @@ public class LdbcUtils {
                                                      Node ancestor,
                                                      RelationshipType edgeType,
                                                      Direction edgeDirection) {
-        TraversalDescription isDescendantTraversal = db.traversalDescription()
-            .depthFirst()
-            .relationships(edgeType, edgeDirection);
+        TraversalDescription isDescendantTraversal = TraversalPlans.of(db).chain(edgeType, edgeDirection);
         for (Node candidate : isDescendantTraversal.traverse(node).nodes())
-            if (getId(candidate) == getId(ancestor))
+            if (candidate.getId() == ancestor.getId())
                 return true;
         return false;
     }
@@ -419,10 +867,17 @@ public class LdbcUtils {
         return hasNeighbor(db, message, tag, EdgeType.HAS_TAG, Direction.OUTGOING);
     }
 
-    /** @return true if person 1 knows person 2 */
+    /**
+     * @return true if person 1 knows person 2
+     * Use the KNOWS index if one was built for this database;
+     * otherwise walk the KNOWS edges.
+     */
     public static boolean areTheyFriend(GraphDatabaseService db,
                                         Node person1,
                                         Node person2) {
+        KnowsIndex index = KnowsIndex.of(db);
+        if (index != null)
+            return index.areFriends(person1.getId(), person2.getId());
         return hasNeighbor(db, person1, person2, EdgeType.KNOWS, Direction.BOTH);
     }
 
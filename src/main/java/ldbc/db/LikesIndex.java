@@ -0,0 +1,114 @@
+/**
+ * In-memory record of the likes each person's messages received.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+/**
+ * Each person's likes received sorted by date.
+ *
+ * The likes of the messages a person created are held as the date of
+ * each like, the ID of the message liked, and the node ID of the
+ * liker, in the order of DatedIds.  Finding the most recent likers
+ * walks the likes backwards and stops as soon as enough likers are
+ * found, however many likes the person received.
+ *
+ * The index is safe to use from multiple threads.  Update queries 2
+ * and 3 record new likes after their transaction commits.
+ */
+public class LikesIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, LikesIndex> indexes = new ConcurrentHashMap<>();
+
+    private static final Label[] MESSAGE_LABELS = {
+        LdbcUtils.NodeLabel.POST, LdbcUtils.NodeLabel.COMMENT
+    };
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final DatedIds likes = new DatedIds();
+
+    /**
+     * Build the likes index of a database and make it available to
+     * the queries.
+     * @return the new index
+     */
+    public static LikesIndex build(GraphDatabaseService db) {
+        LikesIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new LikesIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static LikesIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private LikesIndex(GraphDatabaseService db) {
+        for (Label label : MESSAGE_LABELS) {
+            ResourceIterator<Node> allMessages = db.findNodes(label);
+            while (allMessages.hasNext()) {
+                Node message = allMessages.next();
+                Iterable<Relationship> edgesFromLikers = message.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.LIKES);
+                if (!edgesFromLikers.iterator().hasNext())
+                    continue;
+                long creatorNodeId = message.getSingleRelationship(LdbcUtils.EdgeType.HAS_CREATOR, Direction.OUTGOING).getEndNode().getId();
+                long messageId = LdbcUtils.getId(message);
+                for (Relationship edgeFromLiker : edgesFromLikers)
+                    likes.append(creatorNodeId, LdbcUtils.getCreationDate(edgeFromLiker),
+                                 messageId, edgeFromLiker.getStartNode().getId());
+            }
+            allMessages.close();
+        }
+        likes.sortAll();
+    }
+
+    /** Record a like added after the index was built. */
+    public void addLike(long creatorNodeId, long creationDate, long likerNodeId, long messageId) {
+        lock.writeLock().lock();
+        try {
+            likes.insert(creatorNodeId, creationDate, messageId, likerNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the most recent like of the most recent likers of the
+     * messages a person created.
+     * @return the likes of limit likers and their ties, newest first
+     */
+    public LikesReceived findRecentLikes(long creatorNodeId, int limit) {
+        lock.readLock().lock();
+        try {
+            int ordinal = likes.ordinal(creatorNodeId);
+            if (ordinal < 0)
+                return LikesReceived.select(new long[0], new long[0], new long[0], 0, limit);
+            return LikesReceived.select(likes.dates(ordinal), likes.nodeIds(ordinal), likes.ids(ordinal),
+                                        likes.size(ordinal), limit);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+}
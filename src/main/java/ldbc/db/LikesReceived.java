@@ -0,0 +1,106 @@
+/**
+ * The most recent likes of a person's messages.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.DatedSort;
+import ldbc.helpers.LongList;
+import ldbc.helpers.LongSet;
+
+/**
+ * The most recent like of each of the most recent likers of a
+ * person's messages.
+ *
+ * A liker's most recent like is the newest one, ties broken by the
+ * smaller message ID.  The likes are ordered by creation date, newest
+ * first.  Asked for n likers, the list holds the first n plus any
+ * further liker whose like shares the creation date of the n-th, so
+ * callers that break ties on another key (the liker ID, say) still
+ * see every candidate.
+ */
+public class LikesReceived {
+    private final long[] creationDates;
+    private final long[] likers;
+    private final long[] messageIds;
+
+    private LikesReceived(long[] creationDates, long[] likers, long[] messageIds) {
+        this.creationDates = creationDates;
+        this.likers = likers;
+        this.messageIds = messageIds;
+    }
+
+    /** @return the number of likes */
+    public int size() { return likers.length; }
+
+    /** @return the creation date of the like at the given position */
+    public long creationDate(int position) { return creationDates[position]; }
+
+    /** @return the node ID of the liker at the given position */
+    public long likerNodeId(int position) { return likers[position]; }
+
+    /** @return the ID of the message liked at the given position */
+    public long messageId(int position) { return messageIds[position]; }
+
+    /**
+     * Collect the likes by walking every HAS_CREATOR and LIKES edge
+     * of the person.
+     *
+     * This is the fallback used when no likes index is available.
+     */
+    static LikesReceived walk(GraphDatabaseService db, Node person, int limit) {
+        LongList dates = new LongList();
+        LongList likers = new LongList();
+        LongList messageIds = new LongList();
+        for (Relationship edgeFromMessage : person.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_CREATOR)) {
+            Node message = edgeFromMessage.getStartNode();
+            long messageId = LdbcUtils.getId(message);
+            for (Relationship edgeFromLiker : message.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.LIKES)) {
+                dates.add(LdbcUtils.getCreationDate(edgeFromLiker));
+                likers.add(edgeFromLiker.getStartNode().getId());
+                messageIds.add(messageId);
+            }
+        }
+        long[] d = dates.toArray();
+        long[] l = likers.toArray();
+        long[] m = messageIds.toArray();
+        DatedSort.sort(d, m, l, d.length);
+        return select(d, l, m, d.length, limit);
+    }
+
+    /**
+     * Select the most recent like of the most recent likers.
+     * @param dates  The creation dates of likes in DatedIds order
+     * @param size   The number of likes in use
+     */
+    static LikesReceived select(long[] dates, long[] likers, long[] messageIds, int size, int limit) {
+        LongList selectedDates = new LongList(Math.max(limit, 1));
+        LongList selectedLikers = new LongList(Math.max(limit, 1));
+        LongList selectedMessageIds = new LongList(Math.max(limit, 1));
+        LongSet seen = new LongSet(Math.max(limit, 1));
+
+        // Walk the likes newest first; a liker's first like is its
+        // most recent.
+        for (int i = size - 1; i >= 0; i--) {
+            if (selectedLikers.size() >= limit
+                && (limit == 0 || dates[i] < selectedDates.get(selectedDates.size() - 1)))
+                break;
+            if (!seen.add(likers[i]))
+                continue;
+            selectedDates.add(dates[i]);
+            selectedLikers.add(likers[i]);
+            selectedMessageIds.add(messageIds[i]);
+        }
+        return new LikesReceived(selectedDates.toArray(),
+                                 selectedLikers.toArray(),
+                                 selectedMessageIds.toArray());
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * In-memory column of the country of every message.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongList;
+
+/**
+ * The country each message was posted from.
+ *
+ * Every country gets a small ordinal.  The column is an array of
+ * shorts indexed by message node ID, holding one plus the ordinal of
+ * the message's country, or zero for nodes that are not messages.
+ * Neo4j hands out node IDs densely, so the column costs two bytes per
+ * node and a lookup is an array access.
+ *
+ * Countries are never added by the update queries.  Update queries 6
+ * and 7 record new messages after their transaction commits.  The
+ * index is safe to use from multiple threads.
+ */
+public class MessageCountryIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, MessageCountryIndex> indexes = new ConcurrentHashMap<>();
+
+    private static final Label[] MESSAGE_LABELS = {
+        LdbcUtils.NodeLabel.POST, LdbcUtils.NodeLabel.COMMENT
+    };
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap countryOrdinals;
+    private final long[] countries;
+    private short[] column = new short[1024];
+
+    /**
+     * Build the message country index of a database and make it
+     * available to the queries.
+     * @return the new index
+     */
+    public static MessageCountryIndex build(GraphDatabaseService db) {
+        MessageCountryIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new MessageCountryIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static MessageCountryIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private MessageCountryIndex(GraphDatabaseService db) {
+        // Assign an ordinal to every country.
+        LongList allCountryNodeIds = new LongList();
+        ResourceIterator<Node> allCountries = db.findNodes(LdbcUtils.NodeLabel.COUNTRY);
+        while (allCountries.hasNext())
+            allCountryNodeIds.add(allCountries.next().getId());
+        allCountries.close();
+        countries = allCountryNodeIds.toArray();
+        countryOrdinals = new LongIntMap(countries.length, -1);
+        for (int ordinal = 0; ordinal < countries.length; ordinal++)
+            countryOrdinals.put(countries[ordinal], ordinal);
+
+        for (Label label : MESSAGE_LABELS) {
+            ResourceIterator<Node> allMessages = db.findNodes(label);
+            while (allMessages.hasNext()) {
+                Node message = allMessages.next();
+                Relationship edgeToCountry = message.getSingleRelationship(LdbcUtils.EdgeType.IS_LOCATED_IN, Direction.OUTGOING);
+                if (edgeToCountry != null)
+                    put(message.getId(), edgeToCountry.getEndNode().getId());
+            }
+            allMessages.close();
+        }
+    }
+
+    /** Record a message added after the index was built. */
+    public void addMessage(long messageNodeId, long countryNodeId) {
+        lock.writeLock().lock();
+        try {
+            put(messageNodeId, countryNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the node ID of the message's country or -1 if unknown */
+    public long findCountry(long messageNodeId) {
+        lock.readLock().lock();
+        try {
+            int entry = messageNodeId < column.length ? column[(int)messageNodeId] : 0;
+            return entry == 0 ? -1 : countries[entry - 1];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long messageNodeId, long countryNodeId) {
+        int ordinal = countryOrdinals.get(countryNodeId);
+        if (ordinal < 0 || messageNodeId > Integer.MAX_VALUE - 8)
+            return;
+        if (messageNodeId >= column.length)
+            column = Arrays.copyOf(column, (int)Math.min(Integer.MAX_VALUE - 8, Math.max(messageNodeId + 1, column.length * 2L)));
+        column[(int)messageNodeId] = (short)(ordinal + 1);
+    }
+
+}
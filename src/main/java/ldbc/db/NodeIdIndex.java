@@ -0,0 +1,145 @@
+/**
+ * In-memory map from LDBC IDs to Neo4j node IDs.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.LongLongMap;
+
+/**
+ * A per-label map from the LDBC ID stored in each node to the node's
+ * Neo4j ID.
+ *
+ * Resolving an ID through the schema index allocates an iterator and
+ * seeks the index on every call; resolving it here is a hash probe.
+ * The maps are loaded in bulk when the index is built.  Nodes added
+ * afterwards are recorded by the update queries once their
+ * transaction commits, and any node the index misses is recorded the
+ * first time the schema index finds it.
+ *
+ * Posts and comments share one message map since LDBC message IDs
+ * are unique across both kinds.  Each entry packs the node ID with a
+ * bit telling whether the message is a post, so a message ID resolves
+ * to its node and kind in a single probe.
+ *
+ * The index is safe to use from multiple threads.
+ */
+public class NodeIdIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, NodeIdIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<LdbcUtils.NodeLabel, LongLongMap> nodeIds = new EnumMap<>(LdbcUtils.NodeLabel.class);
+    private final LongLongMap messages = new LongLongMap(1024, -1);
+
+    /**
+     * Build the node ID index of a database and make it available to
+     * the queries.
+     * @return the new index
+     */
+    public static NodeIdIndex build(GraphDatabaseService db) {
+        NodeIdIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new NodeIdIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static NodeIdIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private NodeIdIndex(GraphDatabaseService db) {
+        for (LdbcUtils.NodeLabel label : LdbcUtils.NodeLabel.values()) {
+            boolean isMessage = isMessageLabel(label);
+            LongLongMap map = isMessage ? messages : new LongLongMap(1024, -1);
+            ResourceIterator<Node> allNodes = db.findNodes(label);
+            while (allNodes.hasNext()) {
+                Node node = allNodes.next();
+                long nodeId = node.getId();
+                map.put(LdbcUtils.getId(node), isMessage ? message(label, nodeId) : nodeId);
+            }
+            allNodes.close();
+            if (!isMessage)
+                nodeIds.put(label, map);
+        }
+    }
+
+    /** @return the packed message entry for the ID or -1 if unknown */
+    public long findMessage(long id) {
+        lock.readLock().lock();
+        try {
+            return messages.get(id);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the node ID held in a packed message entry */
+    public static long messageNodeId(long message) { return message >>> 1; }
+
+    /** @return true if the packed message entry denotes a post */
+    public static boolean isMessagePost(long message) { return (message & 1) != 0; }
+
+    /** @return the node ID of the labeled node with the LDBC ID or -1 if unknown */
+    public long find(Label label, long id) {
+        if (isMessageLabel(label)) {
+            long message = findMessage(id);
+            if (message == -1 || isMessagePost(message) != (label == LdbcUtils.NodeLabel.POST))
+                return -1;
+            return messageNodeId(message);
+        }
+        LongLongMap map = nodeIds.get(label);
+        if (map == null)
+            return -1;
+        lock.readLock().lock();
+        try {
+            return map.get(id);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Record the node ID of a labeled node. */
+    public void add(Label label, long id, long nodeId) {
+        boolean isMessage = isMessageLabel(label);
+        LongLongMap map = isMessage ? messages : nodeIds.get(label);
+        if (map == null)
+            return;
+        lock.writeLock().lock();
+        try {
+            map.put(id, isMessage ? message(label, nodeId) : nodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isMessageLabel(Label label) {
+        return label == LdbcUtils.NodeLabel.POST || label == LdbcUtils.NodeLabel.COMMENT;
+    }
+
+    private static long message(Label label, long nodeId) {
+        return nodeId << 1 | (label == LdbcUtils.NodeLabel.POST ? 1 : 0);
+    }
+
+}
@@ -0,0 +1,342 @@
+/**
+ * In-memory copy of the properties of every person.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.LongIntMap;
+
+/**
+ * The in-node properties of persons, held in one column per property.
+ *
+ * Materializing a query result reads many properties of the same
+ * persons, each read a trip to the property store.  Here a read is a
+ * hash probe from the person's node ID to an ordinal followed by an
+ * array access.  Dates live in primitive arrays, as does the month and
+ * day of each birthday, precomputed for complex read query 10.
+ * Genders, browsers, languages, and first names are held as codes of
+ * the database's dictionaries; other strings that repeat across
+ * persons, such as last names, are shared rather than copied.
+ *
+ * The cache is loaded when built.  Update query 1 records new persons
+ * once its transaction commits; persons never change afterwards.
+ *
+ * The cache is safe to use from multiple threads.
+ */
+public class PersonCache {
+
+    /** The caches built so far, one per database. */
+    private static final Map<GraphDatabaseService, PersonCache> caches = new ConcurrentHashMap<>();
+
+    /** Returned by the date accessors for unknown persons. */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private static final String[] NO_STRINGS = new String[0];
+    private static final int[] NO_CODES = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, String> strings = new HashMap<>();
+    private final Dictionary genderDictionary;
+    private final Dictionary browserDictionary;
+    private final Dictionary languageDictionary;
+    private final Dictionary firstNameDictionary;
+
+    /* One row per person ordinal; personCount rows are in use. */
+    private final LongIntMap ordinals;
+    private int[] firstNames;
+    private String[] lastNames;
+    private int[] genders;
+    private long[] birthdays;
+    private int[] birthdayMonthDays;
+    private long[] creationDates;
+    private String[] locationIps;
+    private int[] browsersUsed;
+    private String[][] emails;
+    private int[][] languages;
+    private int personCount;
+
+    /**
+     * Build the person cache of a database and make it available to
+     * the accessors.
+     * @return the new cache
+     */
+    public static PersonCache build(GraphDatabaseService db) {
+        PersonCache cache;
+        try (Transaction tx = db.beginTx()) {
+            cache = new PersonCache(db);
+        }
+        caches.put(db, cache);
+        return cache;
+    }
+
+    /** @return the cache built for the database or null if none exists */
+    public static PersonCache of(GraphDatabaseService db) {
+        return caches.get(db);
+    }
+
+    private PersonCache(GraphDatabaseService db) {
+        // Share the database's dictionaries if built, else keep our own.
+        Dictionaries dictionaries = Dictionaries.of(db);
+        genderDictionary = dictionaries != null ? dictionaries.genders() : new Dictionary();
+        browserDictionary = dictionaries != null ? dictionaries.browsers() : new Dictionary();
+        languageDictionary = dictionaries != null ? dictionaries.languages() : new Dictionary();
+        firstNameDictionary = dictionaries != null ? dictionaries.firstNames() : new Dictionary();
+
+        ordinals = new LongIntMap(1024, -1);
+        allocate(1024);
+        ResourceIterator<Node> allPersons = db.findNodes(LdbcUtils.NodeLabel.PERSON);
+        while (allPersons.hasNext()) {
+            Node person = allPersons.next();
+            put(person.getId(), person.getAllProperties());
+        }
+        allPersons.close();
+    }
+
+    /**
+     * Record a person added after the cache was built.
+     * @param properties  The person's in-node properties
+     */
+    public void addPerson(long personNodeId, Map<String, Object> properties) {
+        lock.writeLock().lock();
+        try {
+            put(personNodeId, properties);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the person's first name or null if unknown */
+    public String firstName(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? null : firstNameDictionary.decode(firstNames[ordinal]);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the code of the person's first name or Dictionary.NONE if unknown */
+    public int firstNameCode(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? Dictionary.NONE : firstNames[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the code of a first name or Dictionary.NONE if no person has it */
+    public int findFirstNameCode(String firstName) {
+        return firstNameDictionary.find(firstName);
+    }
+
+    /** @return the person's last name or null if unknown */
+    public String lastName(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? null : lastNames[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the person's gender or null if unknown */
+    public String gender(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? null : genderDictionary.decode(genders[ordinal]);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the person's birthday or UNKNOWN */
+    public long birthday(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? UNKNOWN : birthdays[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the month and day of the person's birthday or -1 if unknown */
+    public int birthdayMonthDay(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? -1 : birthdayMonthDays[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the person's creation date or UNKNOWN */
+    public long creationDate(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? UNKNOWN : creationDates[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the person's IP address or null if unknown */
+    public String locationIp(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? null : locationIps[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the person's browser or null if unknown */
+    public String browserUsed(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? null : browserDictionary.decode(browsersUsed[ordinal]);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the person's email addresses (do not modify) or null if unknown */
+    public String[] emails(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            return ordinal < 0 ? null : emails[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the person's languages or null if unknown */
+    public String[] languages(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(personNodeId);
+            if (ordinal < 0)
+                return null;
+            int[] codes = languages[ordinal];
+            String[] values = new String[codes.length];
+            for (int i = 0; i < codes.length; i++)
+                values[i] = languageDictionary.decode(codes[i]);
+            return values;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(long personNodeId, Map<String, Object> properties) {
+        int ordinal = ordinals.get(personNodeId);
+        if (ordinal < 0) {
+            ordinal = personCount++;
+            if (ordinal == firstNames.length)
+                allocate(ordinal * 2);
+            ordinals.put(personNodeId, ordinal);
+        }
+        firstNames[ordinal] = firstNameDictionary.encode(properties.get(LdbcUtils.Keys.FIRSTNAME).toString());
+        lastNames[ordinal] = share(properties.get(LdbcUtils.Keys.LASTNAME));
+        genders[ordinal] = genderDictionary.encode(properties.get(LdbcUtils.Keys.GENDER).toString());
+        birthdays[ordinal] = (long)properties.get(LdbcUtils.Keys.BIRTHDAY);
+        birthdayMonthDays[ordinal] = LdbcUtils.toMonthDay(birthdays[ordinal]);
+        creationDates[ordinal] = (long)properties.get(LdbcUtils.Keys.CREATIONDATE);
+        locationIps[ordinal] = properties.get(LdbcUtils.Keys.LOCATIONIP).toString();
+        browsersUsed[ordinal] = browserDictionary.encode(properties.get(LdbcUtils.Keys.BROWSERUSED).toString());
+        emails[ordinal] = shareAll(properties.get(LdbcUtils.Keys.EMAILS));
+        languages[ordinal] = encodeAll(languageDictionary, properties.get(LdbcUtils.Keys.LANGUAGES));
+    }
+
+    /** @return the one copy of the string kept by the cache */
+    private String share(Object value) {
+        String s = value.toString();
+        String shared = strings.get(s);
+        if (shared == null) {
+            strings.put(s, s);
+            shared = s;
+        }
+        return shared;
+    }
+
+    private String[] shareAll(Object value) {
+        if (value == null)
+            return NO_STRINGS;
+        String[] values = ((String[])value).clone();
+        for (int i = 0; i < values.length; i++)
+            values[i] = share(values[i]);
+        return values;
+    }
+
+    private static int[] encodeAll(Dictionary dictionary, Object value) {
+        if (value == null)
+            return NO_CODES;
+        String[] values = (String[])value;
+        int[] codes = new int[values.length];
+        for (int i = 0; i < values.length; i++)
+            codes[i] = dictionary.encode(values[i]);
+        return codes;
+    }
+
+    private void allocate(int capacity) {
+        if (firstNames == null) {
+            firstNames = new int[capacity];
+            lastNames = new String[capacity];
+            genders = new int[capacity];
+            birthdays = new long[capacity];
+            birthdayMonthDays = new int[capacity];
+            creationDates = new long[capacity];
+            locationIps = new String[capacity];
+            browsersUsed = new int[capacity];
+            emails = new String[capacity][];
+            languages = new int[capacity][];
+            return;
+        }
+        firstNames = Arrays.copyOf(firstNames, capacity);
+        lastNames = Arrays.copyOf(lastNames, capacity);
+        genders = Arrays.copyOf(genders, capacity);
+        birthdays = Arrays.copyOf(birthdays, capacity);
+        birthdayMonthDays = Arrays.copyOf(birthdayMonthDays, capacity);
+        creationDates = Arrays.copyOf(creationDates, capacity);
+        locationIps = Arrays.copyOf(locationIps, capacity);
+        browsersUsed = Arrays.copyOf(browsersUsed, capacity);
+        emails = Arrays.copyOf(emails, capacity);
+        languages = Arrays.copyOf(languages, capacity);
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * In-memory place hierarchy.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.LongLongMap;
+
+/**
+ * The city of every person and the country of every city and
+ * organization, as maps between node IDs.
+ *
+ * Finding the country of a person takes two hash probes instead of
+ * following two edges.
+ *
+ * Places and organizations are never added by the update queries.
+ * Update query 1 records new persons after its transaction commits.
+ * The index is safe to use from multiple threads.
+ */
+public class PlaceIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, PlaceIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongMap personCities = new LongLongMap(1024, -1);
+    private final LongLongMap placeCountries = new LongLongMap(1024, -1);
+
+    /**
+     * Build the place index of a database and make it available to
+     * the queries.
+     * @return the new index
+     */
+    public static PlaceIndex build(GraphDatabaseService db) {
+        PlaceIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new PlaceIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static PlaceIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private PlaceIndex(GraphDatabaseService db) {
+        // A city is part of a country.
+        ResourceIterator<Node> allCities = db.findNodes(LdbcUtils.NodeLabel.CITY);
+        while (allCities.hasNext()) {
+            Node city = allCities.next();
+            Relationship edgeToCountry = city.getSingleRelationship(LdbcUtils.EdgeType.IS_PART_OF, Direction.OUTGOING);
+            if (edgeToCountry != null)
+                placeCountries.put(city.getId(), edgeToCountry.getEndNode().getId());
+        }
+        allCities.close();
+
+        // An organization is located in a country.
+        ResourceIterator<Node> allOrganizations = db.findNodes(LdbcUtils.NodeLabel.ORGANISATION);
+        while (allOrganizations.hasNext()) {
+            Node organization = allOrganizations.next();
+            Relationship edgeToCountry = organization.getSingleRelationship(LdbcUtils.EdgeType.IS_LOCATED_IN, Direction.OUTGOING);
+            if (edgeToCountry != null)
+                placeCountries.put(organization.getId(), edgeToCountry.getEndNode().getId());
+        }
+        allOrganizations.close();
+
+        // A person is located in a city.
+        ResourceIterator<Node> allPersons = db.findNodes(LdbcUtils.NodeLabel.PERSON);
+        while (allPersons.hasNext()) {
+            Node person = allPersons.next();
+            Relationship edgeToCity = person.getSingleRelationship(LdbcUtils.EdgeType.IS_LOCATED_IN, Direction.OUTGOING);
+            if (edgeToCity != null)
+                personCities.put(person.getId(), edgeToCity.getEndNode().getId());
+        }
+        allPersons.close();
+    }
+
+    /** Record a person added after the index was built. */
+    public void addPerson(long personNodeId, long cityNodeId) {
+        lock.writeLock().lock();
+        try {
+            personCities.put(personNodeId, cityNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the node ID of the person's country or -1 if unknown */
+    public long findCountryOfPerson(long personNodeId) {
+        lock.readLock().lock();
+        try {
+            long cityNodeId = personCities.get(personNodeId);
+            return cityNodeId == -1 ? -1 : placeCountries.get(cityNodeId);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the node ID of the organization's country or -1 if unknown */
+    public long findCountryOfOrganization(long organizationNodeId) {
+        lock.readLock().lock();
+        try {
+            return placeCountries.get(organizationNodeId);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+/**
+ * In-memory summary of the tags of every person's posts.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.IntList;
+import ldbc.helpers.LongIntMap;
+
+/**
+ * The tags of each person's posts, as ordinals, for testing posts
+ * against a set of tags without visiting them.
+ *
+ * Every tag gets a dense ordinal; a set of tags is then a bitset over
+ * ordinals.  Each person's posts are summarized by two primitive
+ * arrays: the concatenated tag ordinals of the posts, with the end
+ * offset of each post, and a 64-bit signature per post with bit
+ * (ordinal % 64) set for each of its tags.  OR-ing the words of a
+ * bitset gives the same signature of the set; a post whose signature
+ * shares no bit with it shares no tag with the set, which settles most
+ * posts with one AND.  The other posts are settled by testing their
+ * ordinals against the bitset.
+ *
+ * Tags are never added by the update queries.  Update query 6 records
+ * new posts after its transaction commits.  The index is safe to use
+ * from multiple threads.
+ */
+public class PostTagIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, PostTagIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntMap tagOrdinals;
+
+    /* One summary per person ordinal; postCounts[i] posts and
+     * tagCounts[i] tag ordinals are in use. */
+    private final LongIntMap ordinals = new LongIntMap(1024, -1);
+    private long[][] signatures = new long[16][];
+    private int[][] ends = new int[16][];
+    private int[][] tags = new int[16][];
+    private int[] postCounts = new int[16];
+    private int[] tagCounts = new int[16];
+    private int personCount;
+
+    /**
+     * Build the post tag index of a database and make it available
+     * to the queries.
+     * @return the new index
+     */
+    public static PostTagIndex build(GraphDatabaseService db) {
+        PostTagIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new PostTagIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static PostTagIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private PostTagIndex(GraphDatabaseService db) {
+        // Assign an ordinal to every tag.
+        tagOrdinals = new LongIntMap(1024, -1);
+        ResourceIterator<Node> allTags = db.findNodes(LdbcUtils.NodeLabel.TAG);
+        while (allTags.hasNext())
+            tagOrdinals.put(allTags.next().getId(), tagOrdinals.size());
+        allTags.close();
+
+        IntList postTags = new IntList();
+        ResourceIterator<Node> allPosts = db.findNodes(LdbcUtils.NodeLabel.POST);
+        while (allPosts.hasNext()) {
+            Node post = allPosts.next();
+            postTags.clear();
+            for (Relationship edgeToTag : post.getRelationships(Direction.OUTGOING, LdbcUtils.EdgeType.HAS_TAG)) {
+                int ordinal = tagOrdinals.get(edgeToTag.getEndNode().getId());
+                if (ordinal >= 0)
+                    postTags.add(ordinal);
+            }
+            Node creator = post.getSingleRelationship(LdbcUtils.EdgeType.HAS_CREATOR, Direction.OUTGOING).getEndNode();
+            append(creator.getId(), postTags);
+        }
+        allPosts.close();
+    }
+
+    /** @return a bitset able to hold every tag */
+    public long[] newTagSet() {
+        return new long[(tagOrdinals.size() + 63) >>> 6];
+    }
+
+    /**
+     * Add a tag to a bitset obtained from newTagSet().
+     * @return false if the tag is unknown
+     */
+    public boolean addTag(long[] tagSet, long tagNodeId) {
+        int ordinal = tagOrdinals.get(tagNodeId);
+        if (ordinal < 0)
+            return false;
+        tagSet[ordinal >>> 6] |= 1L << ordinal;
+        return true;
+    }
+
+    /** @return the number of posts created by the person */
+    public int countPosts(long creatorNodeId) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(creatorNodeId);
+            return ordinal < 0 ? 0 : postCounts[ordinal];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the person's posts with at least one tag in a bitset.
+     * @param tagSet  A bitset obtained from newTagSet()
+     */
+    public int countPostsSharingTags(long creatorNodeId, long[] tagSet) {
+        long tagSetSignature = 0;
+        for (long word : tagSet)
+            tagSetSignature |= word;
+
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(creatorNodeId);
+            if (ordinal < 0 || tagSetSignature == 0)
+                return 0;
+            long[] personSignatures = signatures[ordinal];
+            int[] personEnds = ends[ordinal];
+            int[] personTags = tags[ordinal];
+            int count = 0;
+            for (int post = 0, start = 0; post < postCounts[ordinal]; start = personEnds[post++]) {
+                if ((personSignatures[post] & tagSetSignature) == 0)
+                    continue;
+                for (int i = start; i < personEnds[post]; i++) {
+                    int tag = personTags[i];
+                    if ((tagSet[tag >>> 6] & (1L << tag)) != 0) {
+                        count++;
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Record a post added after the index was built. */
+    public void addPost(long creatorNodeId, long[] tagNodeIds) {
+        IntList postTags = new IntList(Math.max(tagNodeIds.length, 1));
+        for (long tagNodeId : tagNodeIds) {
+            int ordinal = tagOrdinals.get(tagNodeId);
+            if (ordinal >= 0)
+                postTags.add(ordinal);
+        }
+        lock.writeLock().lock();
+        try {
+            append(creatorNodeId, postTags);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(long creatorNodeId, IntList postTags) {
+        int ordinal = ordinals.get(creatorNodeId);
+        if (ordinal < 0) {
+            ordinal = personCount++;
+            if (ordinal == postCounts.length) {
+                int capacity = ordinal * 2;
+                signatures = Arrays.copyOf(signatures, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                tags = Arrays.copyOf(tags, capacity);
+                postCounts = Arrays.copyOf(postCounts, capacity);
+                tagCounts = Arrays.copyOf(tagCounts, capacity);
+            }
+            ordinals.put(creatorNodeId, ordinal);
+            signatures[ordinal] = new long[4];
+            ends[ordinal] = new int[4];
+            tags[ordinal] = new int[8];
+        }
+
+        int post = postCounts[ordinal];
+        if (post == signatures[ordinal].length) {
+            signatures[ordinal] = Arrays.copyOf(signatures[ordinal], post * 2);
+            ends[ordinal] = Arrays.copyOf(ends[ordinal], post * 2);
+        }
+        int end = tagCounts[ordinal] + postTags.size();
+        if (end > tags[ordinal].length)
+            tags[ordinal] = Arrays.copyOf(tags[ordinal], Math.max(end, tags[ordinal].length * 2));
+
+        long signature = 0;
+        for (int i = 0; i < postTags.size(); i++) {
+            int tag = postTags.get(i);
+            tags[ordinal][tagCounts[ordinal] + i] = tag;
+            signature |= 1L << tag;
+        }
+        signatures[ordinal][post] = signature;
+        ends[ordinal][post] = end;
+        tagCounts[ordinal] = end;
+        postCounts[ordinal] = post + 1;
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * The newest messages of a group of persons.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.DatedSort;
+import ldbc.helpers.LongList;
+
+/**
+ * The newest messages created by a group of persons up to a date.
+ *
+ * The messages are ordered by creation date, newest first.  Asked for
+ * the newest n messages, the list holds the first n plus any further
+ * message sharing the creation date of the n-th, so callers that
+ * break ties on another key (the message ID, say) still see every
+ * candidate.  The order among messages created at the same date is
+ * unspecified.
+ */
+public class RecentMessages {
+    private final long[] creationDates;
+    private final long[] messages;
+    private final long[] creators;
+
+    private RecentMessages(long[] creationDates, long[] messages, long[] creators) {
+        this.creationDates = creationDates;
+        this.messages = messages;
+        this.creators = creators;
+    }
+
+    /** @return the number of messages */
+    public int size() { return messages.length; }
+
+    /** @return the creation date of the message at the given position */
+    public long creationDate(int position) { return creationDates[position]; }
+
+    /** @return the node ID of the message at the given position */
+    public long messageNodeId(int position) { return messages[position]; }
+
+    /** @return the node ID of the creator of the message at the given position */
+    public long creatorNodeId(int position) { return creators[position]; }
+
+    /**
+     * Collect the messages by walking every HAS_CREATOR edge of the
+     * persons.
+     *
+     * This is the fallback used when no timeline index is available.
+     */
+    static RecentMessages walk(GraphDatabaseService db,
+                               long[] creatorNodeIds,
+                               long maxDate,
+                               int limit) {
+        long[][] dates = new long[creatorNodeIds.length][];
+        long[][] messages = new long[creatorNodeIds.length][];
+        int[] ends = new int[creatorNodeIds.length];
+        LongList creatorDates = new LongList();
+        LongList creatorMessages = new LongList();
+        for (int k = 0; k < creatorNodeIds.length; k++) {
+            creatorDates.clear();
+            creatorMessages.clear();
+            Node creator = db.getNodeById(creatorNodeIds[k]);
+            for (Relationship edgeFromMessage : creator.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_CREATOR)) {
+                Node message = edgeFromMessage.getStartNode();
+                long creationDate = LdbcUtils.getCreationDate(message);
+                if (creationDate <= maxDate) {
+                    creatorDates.add(creationDate);
+                    creatorMessages.add(message.getId());
+                }
+            }
+            dates[k] = creatorDates.toArray();
+            messages[k] = creatorMessages.toArray();
+            ends[k] = dates[k].length;
+            DatedSort.sort(dates[k], messages[k], ends[k]);
+        }
+        return merge(dates, messages, ends, creatorNodeIds, limit);
+    }
+
+    /**
+     * Merge per-creator message rows newest first.
+     *
+     * Row k holds the messages of creator k sorted by ascending
+     * creation date; only its first ends[k] entries are considered.
+     * The merge stops once it has the newest limit messages and their
+     * ties, so its cost depends on the limit, not on the length of
+     * the rows.
+     */
+    static RecentMessages merge(long[][] dates, long[][] messages, int[] ends,
+                                long[] creators, int limit) {
+        // A max-heap of the rows, keyed by the date of each row's
+        // newest remaining message.
+        int[] positions = new int[ends.length];
+        int[] heap = new int[ends.length];
+        int heapSize = 0;
+        for (int k = 0; k < ends.length; k++) {
+            positions[k] = ends[k] - 1;
+            if (positions[k] >= 0)
+                heapSize = push(heap, heapSize, k, dates, positions);
+        }
+
+        LongList mergedDates = new LongList(Math.max(limit, 1));
+        LongList mergedMessages = new LongList(Math.max(limit, 1));
+        LongList mergedCreators = new LongList(Math.max(limit, 1));
+        while (heapSize > 0) {
+            int k = heap[0];
+            long creationDate = dates[k][positions[k]];
+            int size = mergedDates.size();
+            if (size >= limit && (size == 0 || creationDate != mergedDates.get(size - 1)))
+                break;
+            mergedDates.add(creationDate);
+            mergedMessages.add(messages[k][positions[k]]);
+            mergedCreators.add(creators[k]);
+
+            // Advance the row and restore the heap.
+            if (--positions[k] < 0)
+                heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, 0, dates, positions);
+        }
+        return new RecentMessages(mergedDates.toArray(),
+                                  mergedMessages.toArray(),
+                                  mergedCreators.toArray());
+    }
+
+    private static int push(int[] heap, int heapSize, int k,
+                            long[][] dates, int[] positions) {
+        int i = heapSize;
+        heap[i] = k;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (key(heap[parent], dates, positions) >= key(heap[i], dates, positions))
+                break;
+            int row = heap[parent]; heap[parent] = heap[i]; heap[i] = row;
+            i = parent;
+        }
+        return heapSize + 1;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int i,
+                                 long[][] dates, int[] positions) {
+        for (int child = 2 * i + 1; child < heapSize; i = child, child = 2 * i + 1) {
+            if (child + 1 < heapSize
+                && key(heap[child + 1], dates, positions) > key(heap[child], dates, positions))
+                child++;
+            if (key(heap[i], dates, positions) >= key(heap[child], dates, positions))
+                return;
+            int row = heap[i]; heap[i] = heap[child]; heap[child] = row;
+        }
+    }
+
+    private static long key(int k, long[][] dates, int[] positions) {
+        return dates[k][positions[k]];
+    }
+
+}
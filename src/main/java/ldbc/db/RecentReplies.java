@@ -0,0 +1,91 @@
+/**
+ * The most recent replies to a person's messages.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.DatedSort;
+import ldbc.helpers.LongList;
+
+/**
+ * The most recent comments replying directly to the messages a
+ * person created.
+ *
+ * The replies are ordered by creation date, newest first, ties broken
+ * by the smaller comment ID.
+ */
+public class RecentReplies {
+    private final long[] creationDates;
+    private final long[] commentIds;
+    private final long[] repliers;
+
+    private RecentReplies(long[] creationDates, long[] commentIds, long[] repliers) {
+        this.creationDates = creationDates;
+        this.commentIds = commentIds;
+        this.repliers = repliers;
+    }
+
+    /** @return the number of replies */
+    public int size() { return commentIds.length; }
+
+    /** @return the creation date of the reply at the given position */
+    public long creationDate(int position) { return creationDates[position]; }
+
+    /** @return the ID of the comment at the given position */
+    public long commentId(int position) { return commentIds[position]; }
+
+    /** @return the node ID of the creator of the reply at the given position */
+    public long replierNodeId(int position) { return repliers[position]; }
+
+    /**
+     * Collect the replies by walking every HAS_CREATOR and REPLY_OF
+     * edge of the person.
+     *
+     * This is the fallback used when no replies index is available.
+     */
+    static RecentReplies walk(GraphDatabaseService db, Node person, int limit) {
+        LongList dates = new LongList();
+        LongList commentIds = new LongList();
+        LongList repliers = new LongList();
+        for (Relationship edgeFromMessage : person.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_CREATOR)) {
+            Node message = edgeFromMessage.getStartNode();
+            for (Relationship edgeFromComment : message.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.REPLY_OF)) {
+                Node comment = edgeFromComment.getStartNode();
+                dates.add(LdbcUtils.getCreationDate(comment));
+                commentIds.add(LdbcUtils.getId(comment));
+                repliers.add(LdbcUtils.findCreatorOfMessage(db, comment).getId());
+            }
+        }
+        long[] d = dates.toArray();
+        long[] c = commentIds.toArray();
+        long[] r = repliers.toArray();
+        DatedSort.sort(d, c, r, d.length);
+        return newest(d, c, r, d.length, limit);
+    }
+
+    /**
+     * Take the newest replies.
+     * @param dates  The creation dates of replies in DatedIds order
+     * @param size   The number of replies in use
+     */
+    static RecentReplies newest(long[] dates, long[] commentIds, long[] repliers, int size, int limit) {
+        int count = Math.min(size, limit);
+        long[] newestDates = new long[count];
+        long[] newestCommentIds = new long[count];
+        long[] newestRepliers = new long[count];
+        for (int i = 0; i < count; i++) {
+            newestDates[i] = dates[size - 1 - i];
+            newestCommentIds[i] = commentIds[size - 1 - i];
+            newestRepliers[i] = repliers[size - 1 - i];
+        }
+        return new RecentReplies(newestDates, newestCommentIds, newestRepliers);
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * In-memory record of the replies each person's messages received.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+/**
+ * Each person's replies received sorted by date.
+ *
+ * The comments replying directly to the messages a person created
+ * are held as the creation date of each comment, its ID, and the node
+ * ID of its creator, in the order of DatedIds.  The most recent
+ * replies are then the last entries, read backwards, however many
+ * replies the person received.
+ *
+ * The index is safe to use from multiple threads.  Update query 7
+ * records new comments after its transaction commits.
+ */
+public class RepliesIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, RepliesIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final DatedIds replies = new DatedIds();
+
+    /**
+     * Build the replies index of a database and make it available to
+     * the queries.
+     * @return the new index
+     */
+    public static RepliesIndex build(GraphDatabaseService db) {
+        RepliesIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new RepliesIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static RepliesIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private RepliesIndex(GraphDatabaseService db) {
+        ResourceIterator<Node> allComments = db.findNodes(LdbcUtils.NodeLabel.COMMENT);
+        while (allComments.hasNext()) {
+            Node comment = allComments.next();
+            Node parent = LdbcUtils.findNeighbor(db, comment, LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
+            if (parent == null)
+                continue;
+            replies.append(LdbcUtils.findCreatorOfMessage(db, parent).getId(),
+                           LdbcUtils.getCreationDate(comment),
+                           LdbcUtils.getId(comment),
+                           LdbcUtils.findCreatorOfMessage(db, comment).getId());
+        }
+        allComments.close();
+        replies.sortAll();
+    }
+
+    /** Record a comment added after the index was built. */
+    public void addReply(long parentCreatorNodeId, long creationDate, long commentId, long replierNodeId) {
+        lock.writeLock().lock();
+        try {
+            replies.insert(parentCreatorNodeId, creationDate, commentId, replierNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the most recent replies to the messages a person created.
+     * @return up to limit replies, newest first
+     */
+    public RecentReplies findRecentReplies(long creatorNodeId, int limit) {
+        lock.readLock().lock();
+        try {
+            int ordinal = replies.ordinal(creatorNodeId);
+            if (ordinal < 0)
+                return RecentReplies.newest(new long[0], new long[0], new long[0], 0, limit);
+            return RecentReplies.newest(replies.dates(ordinal), replies.ids(ordinal), replies.nodeIds(ordinal),
+                                        replies.size(ordinal), limit);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+}
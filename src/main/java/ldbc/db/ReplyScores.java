@@ -0,0 +1,125 @@
+/**
+ * Interaction weights between persons.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.LongIntMap;
+
+/**
+ * The interaction weights used by complex read query 14.
+ *
+ * A comment by person A replying to a post by person B adds 1.0 to
+ * the weight of the pair; replying to a comment adds 0.5.  Both
+ * directions count.  Rather than scanning the messages of both
+ * persons for every pair, we scan each person's comments once and
+ * record the points earned toward every author replied to (a reply
+ * profile, kept in half points).  The weight of a pair is then two
+ * hash probes.
+ *
+ * One instance serves one query.  Profiles may additionally be kept
+ * across queries in a per-database cache; a new comment only changes
+ * its author's profile, so the update queries invalidate that one
+ * entry.  The cache is emptied when it reaches its capacity.
+ */
+public class ReplyScores {
+
+    /** The profile caches, one per database. */
+    private static final Map<GraphDatabaseService, Cache> caches = new ConcurrentHashMap<>();
+
+    private static class Cache {
+        final int capacity;
+        final Map<Long, LongIntMap> profiles = new ConcurrentHashMap<>();
+        // Bumped on every invalidation so a profile computed before
+        // a concurrent update is never published.
+        final AtomicLong epoch = new AtomicLong();
+
+        Cache(int capacity) { this.capacity = capacity; }
+    }
+
+    private final GraphDatabaseService db;
+    private final Cache cache;
+    private final Map<Long, LongIntMap> profiles = new HashMap<>();
+
+    /** Prepare to compute weights for one query. */
+    public ReplyScores(GraphDatabaseService db) {
+        this.db = db;
+        this.cache = caches.get(db);
+    }
+
+    /** Keep reply profiles of up to capacity persons across queries. */
+    public static void enableCache(GraphDatabaseService db, int capacity) {
+        caches.put(db, new Cache(capacity));
+    }
+
+    /** Forget the cached reply profile of a person who just commented. */
+    public static void invalidate(GraphDatabaseService db, long personNodeId) {
+        Cache cache = caches.get(db);
+        if (cache != null) {
+            cache.epoch.incrementAndGet();
+            cache.profiles.remove(personNodeId);
+        }
+    }
+
+    /** @return the interaction weight between two persons */
+    public double weight(long person1NodeId, long person2NodeId) {
+        int halfPoints = findProfile(person1NodeId).get(person2NodeId)
+            + findProfile(person2NodeId).get(person1NodeId);
+        return halfPoints / 2.0;
+    }
+
+    private LongIntMap findProfile(long personNodeId) {
+        LongIntMap profile = profiles.get(personNodeId);
+        if (profile != null)
+            return profile;
+        if (cache != null) {
+            profile = cache.profiles.get(personNodeId);
+            if (profile == null) {
+                long epoch = cache.epoch.get();
+                profile = computeProfile(personNodeId);
+                if (cache.profiles.size() >= cache.capacity)
+                    cache.profiles.clear();
+                if (cache.epoch.get() == epoch)
+                    cache.profiles.putIfAbsent(personNodeId, profile);
+            }
+        }
+        else
+            profile = computeProfile(personNodeId);
+        profiles.put(personNodeId, profile);
+        return profile;
+    }
+
+    /** @return half points earned by the person per author replied to */
+    private LongIntMap computeProfile(long personNodeId) {
+        LongIntMap profile = new LongIntMap(16, 0);
+        Node person = db.getNodeById(personNodeId);
+        for (Relationship edgeFromMessage : person.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_CREATOR)) {
+            Node message = edgeFromMessage.getStartNode();
+
+            // Skip posts.
+            if (LdbcUtils.isMessagePost(message))
+                continue;
+
+            // Get the message being replied to and its author.
+            Node parentMessage = LdbcUtils.findNeighbor(db, message, LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
+            Node parentMessageAuthor = LdbcUtils.findCreatorOfMessage(db, parentMessage);
+
+            profile.increment(parentMessageAuthor.getId(),
+                              LdbcUtils.isMessagePost(parentMessage) ? 2 : 1);
+        }
+        return profile;
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * In-memory map from comments to the posts starting their threads.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.LongList;
+import ldbc.helpers.LongLongMap;
+
+/**
+ * A denormalized pointer from every comment to its original post.
+ *
+ * Without it, finding the original post of a comment walks the
+ * REPLY_OF chain up to the root, a cost linear in the depth of the
+ * thread.  Here it is a hash probe from the comment's node ID to the
+ * post's node ID.
+ *
+ * The index is built by walking each thread down from its post once.
+ * Update query 7 records new comments after its transaction commits;
+ * a new comment shares the original post of the message it replies
+ * to.
+ *
+ * The index is safe to use from multiple threads.
+ */
+public class RootPostIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, RootPostIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongMap rootPosts = new LongLongMap(1024, -1);
+
+    /**
+     * Build the root post index of a database and make it available
+     * to the queries.
+     * @return the new index
+     */
+    public static RootPostIndex build(GraphDatabaseService db) {
+        RootPostIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new RootPostIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static RootPostIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private RootPostIndex(GraphDatabaseService db) {
+        LongList thread = new LongList();
+        ResourceIterator<Node> allPosts = db.findNodes(LdbcUtils.NodeLabel.POST);
+        while (allPosts.hasNext()) {
+            long postNodeId = allPosts.next().getId();
+
+            // Collect the thread breadth first; the list doubles as
+            // the queue.
+            thread.clear();
+            thread.add(postNodeId);
+            for (int i = 0; i < thread.size(); i++) {
+                Node message = db.getNodeById(thread.get(i));
+                for (Relationship edgeFromComment : message.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.REPLY_OF)) {
+                    long commentNodeId = edgeFromComment.getStartNode().getId();
+                    rootPosts.put(commentNodeId, postNodeId);
+                    thread.add(commentNodeId);
+                }
+            }
+        }
+        allPosts.close();
+    }
+
+    /** @return the node ID of the comment's original post or -1 if unknown */
+    public long find(long commentNodeId) {
+        lock.readLock().lock();
+        try {
+            return rootPosts.get(commentNodeId);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Record a comment replying directly to a post. */
+    public void addReplyToPost(long commentNodeId, long postNodeId) {
+        lock.writeLock().lock();
+        try {
+            rootPosts.put(commentNodeId, postNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Record a comment replying to another comment.
+     *
+     * Nothing is recorded if the earlier comment is unknown; lookups
+     * of the new comment then fall back to walking the thread.
+     */
+    public void addReplyToComment(long commentNodeId, long earlierCommentNodeId) {
+        lock.writeLock().lock();
+        try {
+            long postNodeId = rootPosts.get(earlierCommentNodeId);
+            if (postNodeId != -1)
+                rootPosts.put(commentNodeId, postNodeId);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+}
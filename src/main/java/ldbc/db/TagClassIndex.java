@@ -0,0 +1,104 @@
+/**
+ * In-memory snapshot of the tag class hierarchy.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongList;
+
+/**
+ * The closure of the IS_SUBCLASS_OF hierarchy and the class of every
+ * tag.
+ *
+ * Each tag class gets a dense ordinal and a bitset of the ordinals of
+ * its descendants (itself included).  Each tag maps to the ordinal of
+ * its class.  Whether a tag falls under a class is then a single bit
+ * test.
+ *
+ * Tags and tag classes are never added by the update queries, so the
+ * index is immutable once built and needs no locking.
+ */
+public class TagClassIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, TagClassIndex> indexes = new ConcurrentHashMap<>();
+
+    private final LongIntMap classOrdinals;
+    private final long[][] descendants;
+    private final LongIntMap tagClasses;
+
+    /**
+     * Build the tag class index of a database and make it available
+     * to the queries.
+     * @return the new index
+     */
+    public static TagClassIndex build(GraphDatabaseService db) {
+        TagClassIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new TagClassIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static TagClassIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private TagClassIndex(GraphDatabaseService db) {
+        // Assign an ordinal to every tag class.
+        LongList classes = new LongList();
+        ResourceIterator<Node> allTagClasses = db.findNodes(LdbcUtils.NodeLabel.TAG_CLASS);
+        while (allTagClasses.hasNext())
+            classes.add(allTagClasses.next().getId());
+        allTagClasses.close();
+        classOrdinals = new LongIntMap(classes.size(), -1);
+        for (int ordinal = 0; ordinal < classes.size(); ordinal++)
+            classOrdinals.put(classes.get(ordinal), ordinal);
+
+        // Mark each class in its own bitset and in those of all its
+        // ancestors.
+        int words = (classes.size() + 63) >>> 6;
+        descendants = new long[classes.size()][words];
+        for (int ordinal = 0; ordinal < classes.size(); ordinal++) {
+            Node tagClass = db.getNodeById(classes.get(ordinal));
+            for (int ancestor = ordinal; ancestor >= 0; ) {
+                descendants[ancestor][ordinal >>> 6] |= 1L << ordinal;
+                Node parent = LdbcUtils.findNeighbor(db, tagClass, LdbcUtils.EdgeType.IS_SUBCLASS_OF, Direction.OUTGOING);
+                if (parent == null)
+                    break;
+                tagClass = parent;
+                ancestor = classOrdinals.get(parent.getId());
+            }
+        }
+
+        // Record the class of every tag.
+        tagClasses = new LongIntMap(1024, -1);
+        for (int ordinal = 0; ordinal < classes.size(); ordinal++) {
+            Node tagClass = db.getNodeById(classes.get(ordinal));
+            for (Relationship edgeFromTag : tagClass.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_TYPE))
+                tagClasses.put(edgeFromTag.getStartNode().getId(), ordinal);
+        }
+    }
+
+    /** @return the tags falling under the tag class, empty if the class is unknown */
+    public TagsOfClass findTagsOfClass(long tagClassNodeId) {
+        int ordinal = classOrdinals.get(tagClassNodeId);
+        return new TagsOfClass(tagClasses, ordinal >= 0 ? descendants[ordinal] : new long[0]);
+    }
+
+}
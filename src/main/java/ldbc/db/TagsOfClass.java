@@ -0,0 +1,72 @@
+/**
+ * The tags falling under a tag class.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongList;
+import ldbc.helpers.LongSet;
+
+/**
+ * The set of tags whose class is a given tag class or one of its
+ * descendants.
+ *
+ * Obtained from the tag class index, membership is a bit test on the
+ * ordinal of the tag's class.  Obtained by walking the hierarchy, it
+ * is a probe into the tags collected under the class.
+ */
+public class TagsOfClass {
+    private final LongIntMap tagClasses;
+    private final long[] classes;
+    private final LongSet tags;
+
+    TagsOfClass(LongIntMap tagClasses, long[] classes) {
+        this.tagClasses = tagClasses;
+        this.classes = classes;
+        this.tags = null;
+    }
+
+    private TagsOfClass(LongSet tags) {
+        this.tagClasses = null;
+        this.classes = null;
+        this.tags = tags;
+    }
+
+    /** @return true if the tag falls under the class */
+    public boolean contains(Node tag) {
+        if (tags != null)
+            return tags.contains(tag.getId());
+        int ordinal = tagClasses.get(tag.getId());
+        return ordinal >= 0 && ordinal >>> 6 < classes.length
+            && (classes[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Collect the tags by walking the class hierarchy down.
+     *
+     * This is the fallback used when no tag class index is available.
+     */
+    static TagsOfClass walk(GraphDatabaseService db, Node tagClass) {
+        LongSet tags = new LongSet(64);
+        LongList classes = new LongList();
+        classes.add(tagClass.getId());
+        // The list of classes doubles as the queue.
+        for (int i = 0; i < classes.size(); i++) {
+            Node node = db.getNodeById(classes.get(i));
+            for (Relationship edgeFromSubclass : node.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.IS_SUBCLASS_OF))
+                classes.add(edgeFromSubclass.getStartNode().getId());
+            for (Relationship edgeFromTag : node.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_TYPE))
+                tags.add(edgeFromTag.getStartNode().getId());
+        }
+        return new TagsOfClass(tags);
+    }
+
+}
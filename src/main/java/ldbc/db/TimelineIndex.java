@@ -0,0 +1,212 @@
+/**
+ * In-memory timelines of the messages created by each person.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import ldbc.helpers.DatedSort;
+import ldbc.helpers.LongIntMap;
+import ldbc.helpers.LongList;
+
+/**
+ * Each person's messages sorted by creation date.
+ *
+ * A person's timeline is a pair of primitive arrays holding the
+ * creation dates and node IDs of the messages the person created,
+ * sorted by ascending date so that new messages, nearly always the
+ * newest, append at the end.  Finding the newest messages up to a
+ * date is a binary search per person followed by a merge that stops
+ * after the requested number of messages.
+ *
+ * The index is safe to use from multiple threads.  Update queries
+ * record new posts and comments after their transaction commits.
+ */
+public class TimelineIndex {
+
+    /** The indexes built so far, one per database. */
+    private static final Map<GraphDatabaseService, TimelineIndex> indexes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /* One timeline per person ordinal; sizes[i] entries are in use. */
+    private final LongIntMap ordinals;
+    private long[][] dates;
+    private long[][] messages;
+    private int[] sizes;
+    private int personCount;
+
+    /**
+     * Build the timeline index of a database and make it available
+     * to the queries.
+     * @return the new index
+     */
+    public static TimelineIndex build(GraphDatabaseService db) {
+        TimelineIndex index;
+        try (Transaction tx = db.beginTx()) {
+            index = new TimelineIndex(db);
+        }
+        indexes.put(db, index);
+        return index;
+    }
+
+    /** @return the index built for the database or null if none exists */
+    public static TimelineIndex of(GraphDatabaseService db) {
+        return indexes.get(db);
+    }
+
+    private TimelineIndex(GraphDatabaseService db) {
+        LongList persons = new LongList(1024);
+        ResourceIterator<Node> allPersons = db.findNodes(LdbcUtils.NodeLabel.PERSON);
+        while (allPersons.hasNext())
+            persons.add(allPersons.next().getId());
+        allPersons.close();
+
+        personCount = persons.size();
+        ordinals = new LongIntMap(personCount, -1);
+        dates = new long[personCount][];
+        messages = new long[personCount][];
+        sizes = new int[personCount];
+
+        LongList personDates = new LongList();
+        LongList personMessages = new LongList();
+        for (int ordinal = 0; ordinal < personCount; ordinal++) {
+            ordinals.put(persons.get(ordinal), ordinal);
+            personDates.clear();
+            personMessages.clear();
+            Node person = db.getNodeById(persons.get(ordinal));
+            for (Relationship edgeFromMessage : person.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_CREATOR)) {
+                Node message = edgeFromMessage.getStartNode();
+                personDates.add(LdbcUtils.getCreationDate(message));
+                personMessages.add(message.getId());
+            }
+            dates[ordinal] = personDates.toArray();
+            messages[ordinal] = personMessages.toArray();
+            sizes[ordinal] = personDates.size();
+            DatedSort.sort(dates[ordinal], messages[ordinal], sizes[ordinal]);
+        }
+    }
+
+    /** Record a message added after the index was built. */
+    public void addMessage(long creatorNodeId, long messageNodeId, long creationDate) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinalOrAdd(creatorNodeId);
+            int size = sizes[ordinal];
+            if (dates[ordinal] == null || size == dates[ordinal].length) {
+                int capacity = Math.max(4, size * 2);
+                dates[ordinal] = dates[ordinal] == null ? new long[capacity] : Arrays.copyOf(dates[ordinal], capacity);
+                messages[ordinal] = messages[ordinal] == null ? new long[capacity] : Arrays.copyOf(messages[ordinal], capacity);
+            }
+
+            // Shift any newer message up one slot.
+            long[] personDates = dates[ordinal];
+            long[] personMessages = messages[ordinal];
+            int position = size;
+            while (position > 0 && personDates[position - 1] > creationDate) {
+                personDates[position] = personDates[position - 1];
+                personMessages[position] = personMessages[position - 1];
+                position--;
+            }
+            personDates[position] = creationDate;
+            personMessages[position] = messageNodeId;
+            sizes[ordinal] = size + 1;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the newest messages created by the persons on or before
+     * maxDate.
+     * @return the newest limit messages and their ties, newest first
+     */
+    public RecentMessages findRecentMessages(long[] creatorNodeIds, long maxDate, int limit) {
+        lock.readLock().lock();
+        try {
+            long[][] rowDates = new long[creatorNodeIds.length][];
+            long[][] rowMessages = new long[creatorNodeIds.length][];
+            int[] ends = new int[creatorNodeIds.length];
+            for (int k = 0; k < creatorNodeIds.length; k++) {
+                int ordinal = ordinals.get(creatorNodeIds[k]);
+                if (ordinal < 0 || dates[ordinal] == null) {
+                    rowDates[k] = new long[0];
+                    rowMessages[k] = new long[0];
+                    continue;
+                }
+                rowDates[k] = dates[ordinal];
+                rowMessages[k] = messages[ordinal];
+                ends[k] = upperBound(dates[ordinal], sizes[ordinal], maxDate);
+            }
+            return RecentMessages.merge(rowDates, rowMessages, ends, creatorNodeIds, limit);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the messages created by a person between two dates.
+     * @return the node IDs of the messages created on or after
+     *         startDate and before endDate, oldest first
+     */
+    public long[] findMessagesBetween(long creatorNodeId, long startDate, long endDate) {
+        lock.readLock().lock();
+        try {
+            int ordinal = ordinals.get(creatorNodeId);
+            if (ordinal < 0 || dates[ordinal] == null)
+                return new long[0];
+            int start = upperBound(dates[ordinal], sizes[ordinal], startDate - 1);
+            int end = upperBound(dates[ordinal], sizes[ordinal], endDate - 1);
+            return Arrays.copyOfRange(messages[ordinal], start, Math.max(start, end));
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the number of leading dates not after maxDate */
+    private static int upperBound(long[] dates, int size, long maxDate) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dates[middle] <= maxDate)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private int ordinalOrAdd(long personNodeId) {
+        int ordinal = ordinals.get(personNodeId);
+        if (ordinal >= 0)
+            return ordinal;
+        ordinal = personCount++;
+        if (ordinal == sizes.length) {
+            int capacity = Math.max(16, ordinal * 2);
+            dates = Arrays.copyOf(dates, capacity);
+            messages = Arrays.copyOf(messages, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        ordinals.put(personNodeId, ordinal);
+        return ordinal;
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Traversal descriptions built once per database.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.db;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.traversal.Evaluators;
+import org.neo4j.graphdb.traversal.TraversalDescription;
+
+/**
+ * The traversal descriptions used by the helpers, built the first
+ * time each is needed and reused from then on.
+ *
+ * Traversal descriptions are immutable; a call supplies only its
+ * start node to traverse().  The plans of a database are safe to use
+ * from multiple threads.
+ */
+public class TraversalPlans {
+
+    /** The plans built so far, one set per database. */
+    private static final Map<GraphDatabaseService, TraversalPlans> plans = new ConcurrentHashMap<>();
+
+    private final GraphDatabaseService db;
+
+    /* Descriptions by direction, then by edge type name. */
+    private final Map<Direction, ConcurrentMap<String, TraversalDescription>> chains = new EnumMap<>(Direction.class);
+    private final Map<Direction, ConcurrentMap<String, TraversalDescription>> ancestors = new EnumMap<>(Direction.class);
+
+    /** @return the plans of the database, creating them if needed */
+    public static TraversalPlans of(GraphDatabaseService db) {
+        TraversalPlans dbPlans = plans.get(db);
+        if (dbPlans == null) {
+            TraversalPlans newPlans = new TraversalPlans(db);
+            dbPlans = plans.putIfAbsent(db, newPlans);
+            if (dbPlans == null)
+                dbPlans = newPlans;
+        }
+        return dbPlans;
+    }
+
+    private TraversalPlans(GraphDatabaseService db) {
+        this.db = db;
+        for (Direction direction : Direction.values()) {
+            chains.put(direction, new ConcurrentHashMap<String, TraversalDescription>());
+            ancestors.put(direction, new ConcurrentHashMap<String, TraversalDescription>());
+        }
+    }
+
+    /**
+     * @return a depth-first traversal following edges of the given
+     *         type and direction, start node included
+     */
+    public TraversalDescription chain(RelationshipType edgeType, Direction edgeDirection) {
+        ConcurrentMap<String, TraversalDescription> descriptions = chains.get(edgeDirection);
+        TraversalDescription description = descriptions.get(edgeType.name());
+        if (description == null) {
+            description = db.traversalDescription()
+                .depthFirst()
+                .relationships(edgeType, edgeDirection);
+            descriptions.putIfAbsent(edgeType.name(), description);
+        }
+        return description;
+    }
+
+    /**
+     * @return a depth-first traversal following edges of the given
+     *         type and direction, start node excluded
+     */
+    public TraversalDescription ancestorsOf(RelationshipType edgeType, Direction edgeDirection) {
+        ConcurrentMap<String, TraversalDescription> descriptions = ancestors.get(edgeDirection);
+        TraversalDescription description = descriptions.get(edgeType.name());
+        if (description == null) {
+            description = chain(edgeType, edgeDirection)
+                .evaluator(Evaluators.excludeStartPosition());
+            descriptions.putIfAbsent(edgeType.name(), description);
+        }
+        return description;
+    }
+
+}
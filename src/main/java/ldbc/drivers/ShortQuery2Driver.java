@@ -1,7 +1,7 @@
 /**
  * Driver for short read query 2.
  *
- * Copyright © 2016, 2018 Alain Kägi
+ * Copyright © 2016, 2018, 2026 Alain Kägi
  */
 
 package ldbc.drivers;
@@ -20,12 +20,17 @@ import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery2PersonPostsResult;
 
+import ldbc.glue.Neo4jDbConnectionState;
+import ldbc.glue.Settings;
 import ldbc.queries.ShortQuery2;
 
 public class ShortQuery2Driver {
 
     static String progName = "ShortQuery2Driver";
 
+    /* Behavior controls. */
+    static Settings settings = null;
+
     /* Graph. */
     static String graphName;
     static GraphDatabaseService db;
@@ -37,6 +42,8 @@ public class ShortQuery2Driver {
         parseArgs(argv);
 
         db = new GraphDatabaseFactory().newEmbeddedDatabase(new File(graphName));
+        if (settings != null)
+            Neo4jDbConnectionState.prepare(db, settings);
 
         List<LdbcShortQuery2PersonPostsResult> r = ShortQuery2.query(db, personId, 10);
 
@@ -82,6 +89,12 @@ public class ShortQuery2Driver {
                 printUsage(System.out);
                 System.exit(0);
             }
+            else if (argv[argi].compareTo("-a") == 0) {
+                settings = Settings.all();
+            }
+            else if (argv[argi].compareTo("-i") == 0) {
+                settings = new Settings();
+            }
             else {
                 System.err.println(progName + ": " + argv[argi] + ": Unrecognized option");
                 printUsage(System.err);
@@ -117,6 +130,8 @@ public class ShortQuery2Driver {
     static void printUsage(PrintStream stream) {
         stream.println("Usage: " + progName + " [OPTION]... GRAPH PERSONID");
         stream.println("Execute short query 2 of LDBC SNB on GRAPH with PERSONID.");
+        stream.println("  -a  build every index and cache first");
         stream.println("  -h  print this help and exit");
+        stream.println("  -i  build the indexes and caches a benchmark run builds");
     }
 }
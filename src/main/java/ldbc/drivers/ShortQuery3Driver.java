@@ -1,7 +1,7 @@
 /**
  * Driver for short read query 3.
  *
- * Copyright © 2016, 2018 Alain Kägi
+ * Copyright © 2016, 2018, 2026 Alain Kägi
  */
 
 package ldbc.drivers;
@@ -20,12 +20,17 @@ import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery3PersonFriendsResult;
 
+import ldbc.glue.Neo4jDbConnectionState;
+import ldbc.glue.Settings;
 import ldbc.queries.ShortQuery3;
 
 public class ShortQuery3Driver {
 
     static String progName = "ShortQuery3Driver";
 
+    /* Behavior controls. */
+    static Settings settings = null;
+
     /* Graph. */
     static String graphName;
     static GraphDatabaseService db;
@@ -37,6 +42,8 @@ public class ShortQuery3Driver {
         parseArgs(argv);
 
         db = new GraphDatabaseFactory().newEmbeddedDatabase(new File(graphName));
+        if (settings != null)
+            Neo4jDbConnectionState.prepare(db, settings);
 
         List<LdbcShortQuery3PersonFriendsResult> r = ShortQuery3.query(db, personId);
 
@@ -79,6 +86,12 @@ public class ShortQuery3Driver {
                 printUsage(System.out);
                 System.exit(0);
             }
+            else if (argv[argi].compareTo("-a") == 0) {
+                settings = Settings.all();
+            }
+            else if (argv[argi].compareTo("-i") == 0) {
+                settings = new Settings();
+            }
             else {
                 System.err.println(progName + ": " + argv[argi] + ": Unrecognized option");
                 printUsage(System.err);
@@ -114,6 +127,8 @@ public class ShortQuery3Driver {
     static void printUsage(PrintStream stream) {
         stream.println("Usage: " + progName + " [OPTION]... GRAPH PERSONID");
         stream.println("Execute short query 3 of LDBC SNB on GRAPH with PERSONID.");
+        stream.println("  -a  build every index and cache first");
         stream.println("  -h  print this help and exit");
+        stream.println("  -i  build the indexes and caches a benchmark run builds");
     }
 }
@@ -1,7 +1,7 @@
 /**
  * Driver for short read query 4.
  *
- * Copyright © 2016, 2018 Alain Kägi
+ * Copyright © 2016, 2018, 2026 Alain Kägi
  */
 
 package ldbc.drivers;
@@ -18,12 +18,17 @@ import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery4MessageContentResult;
 
+import ldbc.glue.Neo4jDbConnectionState;
+import ldbc.glue.Settings;
 import ldbc.queries.ShortQuery4;
 
 public class ShortQuery4Driver {
 
     static String progName = "ShortQuery4Driver";
 
+    /* Behavior controls. */
+    static Settings settings = null;
+
     /* Graph. */
     static String graphName;
     static GraphDatabaseService db;
@@ -35,6 +40,8 @@ public class ShortQuery4Driver {
         parseArgs(argv);
 
         db = new GraphDatabaseFactory().newEmbeddedDatabase(new File(graphName));
+        if (settings != null)
+            Neo4jDbConnectionState.prepare(db, settings);
 
         LdbcShortQuery4MessageContentResult r = ShortQuery4.query(db, messageId);
 
@@ -70,6 +77,12 @@ public class ShortQuery4Driver {
                 printUsage(System.out);
                 System.exit(0);
             }
+            else if (argv[argi].compareTo("-a") == 0) {
+                settings = Settings.all();
+            }
+            else if (argv[argi].compareTo("-i") == 0) {
+                settings = new Settings();
+            }
             else {
                 System.err.println(progName + ": " + argv[argi] + ": Unrecognized option");
                 printUsage(System.err);
@@ -105,6 +118,8 @@ public class ShortQuery4Driver {
     static void printUsage(PrintStream stream) {
         stream.println("Usage: " + progName + " [OPTION]... GRAPH MESSAGEID");
         stream.println("Execute short query 4 of LDBC SNB on GRAPH with MESSAGEID.");
+        stream.println("  -a  build every index and cache first");
         stream.println("  -h  print this help and exit");
+        stream.println("  -i  build the indexes and caches a benchmark run builds");
     }
 }
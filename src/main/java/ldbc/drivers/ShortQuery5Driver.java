@@ -1,7 +1,7 @@
 /**
  * Driver for short read query 5.
  *
- * Copyright © 2016, 2018 Alain Kägi
+ * Copyright © 2016, 2018, 2026 Alain Kägi
  */
 
 package ldbc.drivers;
@@ -14,12 +14,17 @@ import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery5MessageCreatorResult;
 
+import ldbc.glue.Neo4jDbConnectionState;
+import ldbc.glue.Settings;
 import ldbc.queries.ShortQuery5;
 
 public class ShortQuery5Driver {
 
     static String progName = "ShortQuery5Driver";
 
+    /* Behavior controls. */
+    static Settings settings = null;
+
     /* Graph. */
     static String graphName;
     static GraphDatabaseService db;
@@ -31,6 +36,8 @@ public class ShortQuery5Driver {
         parseArgs(argv);
 
         db = new GraphDatabaseFactory().newEmbeddedDatabase(new File(graphName));
+        if (settings != null)
+            Neo4jDbConnectionState.prepare(db, settings);
 
         LdbcShortQuery5MessageCreatorResult r = ShortQuery5.query(db, messageId);
 
@@ -64,6 +71,12 @@ public class ShortQuery5Driver {
                 printUsage(System.out);
                 System.exit(0);
             }
+            else if (argv[argi].compareTo("-a") == 0) {
+                settings = Settings.all();
+            }
+            else if (argv[argi].compareTo("-i") == 0) {
+                settings = new Settings();
+            }
             else {
                 System.err.println(progName + ": " + argv[argi] + ": Unrecognized option");
                 printUsage(System.err);
@@ -99,6 +112,8 @@ public class ShortQuery5Driver {
     static void printUsage(PrintStream stream) {
         stream.println("Usage: " + progName + " [OPTION]... GRAPH MESSAGEID");
         stream.println("Execute short query 5 of LDBC SNB on GRAPH with MESSAGEID.");
+        stream.println("  -a  build every index and cache first");
         stream.println("  -h  print this help and exit");
+        stream.println("  -i  build the indexes and caches a benchmark run builds");
     }
 }
@@ -0,0 +1,226 @@
+/**
+ * Driver timing traversal descriptions built per call against reused ones.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.drivers;
+
+import java.io.PrintStream;
+import java.io.File;
+
+import java.util.Arrays;
+
+import java.lang.management.*;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.traversal.Evaluators;
+import org.neo4j.graphdb.traversal.TraversalDescription;
+
+import ldbc.db.DbUtils;
+import ldbc.db.LdbcUtils;
+import ldbc.db.TraversalPlans;
+
+public class TraversalPlansDriver {
+
+    static String progName = "TraversalPlansDriver";
+
+    /* Graph. */
+    static String graphName;
+    static GraphDatabaseService db;
+
+    static int count;
+
+    /** A way to walk from every comment to its original post. */
+    static abstract class Variant {
+        final String name;
+        Variant(String name) { this.name = name; }
+        /** @return a checksum of the walks, equal across variants */
+        abstract long run(Node[] comments, Node[] posts);
+    }
+
+    public static void main(final String[] argv) {
+
+        parseArgs(argv);
+
+        db = new GraphDatabaseFactory().newEmbeddedDatabase(new File(graphName));
+
+        try (Transaction tx = db.beginTx()) {
+            // Pick up to count comments and their original posts.
+            Node[] comments = new Node[count];
+            Node[] posts = new Node[count];
+            int size = 0;
+            ResourceIterator<Node> allComments = db.findNodes(LdbcUtils.NodeLabel.COMMENT);
+            while (size < count && allComments.hasNext()) {
+                comments[size] = allComments.next();
+                posts[size] = DbUtils.findProgenitor(db, comments[size], LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
+                size++;
+            }
+            allComments.close();
+            if (size < count) {
+                comments = Arrays.copyOf(comments, size);
+                posts = Arrays.copyOf(posts, size);
+            }
+            System.out.println(size + " comments");
+
+            // The loops of DbUtils.findProgenitor and
+            // LdbcUtils.isNodeDescendantOfAncestor, with the traversal
+            // description built on every call or taken from the plans.
+            Variant[] variants = {
+                new Variant("findProgenitor, built per call") {
+                    @Override
+                    long run(Node[] comments, Node[] posts) {
+                        long sum = 0;
+                        for (Node comment : comments) {
+                            TraversalDescription progenitorTraversal = db.traversalDescription()
+                                .depthFirst()
+                                .relationships(LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING)
+                                .evaluator(Evaluators.excludeStartPosition());
+                            Node candidateProgenitor = comment;
+                            for (Node nextNode : progenitorTraversal.traverse(comment).nodes())
+                                candidateProgenitor = nextNode;
+                            sum += candidateProgenitor.getId();
+                        }
+                        return sum;
+                    }
+                },
+                new Variant("findProgenitor, TraversalPlans") {
+                    @Override
+                    long run(Node[] comments, Node[] posts) {
+                        long sum = 0;
+                        for (Node comment : comments) {
+                            TraversalDescription progenitorTraversal = TraversalPlans.of(db)
+                                .ancestorsOf(LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
+                            Node candidateProgenitor = comment;
+                            for (Node nextNode : progenitorTraversal.traverse(comment).nodes())
+                                candidateProgenitor = nextNode;
+                            sum += candidateProgenitor.getId();
+                        }
+                        return sum;
+                    }
+                },
+                new Variant("isNodeDescendantOfAncestor, built per call") {
+                    @Override
+                    long run(Node[] comments, Node[] posts) {
+                        long found = 0;
+                        for (int i = 0; i < comments.length; i++) {
+                            TraversalDescription isDescendantTraversal = db.traversalDescription()
+                                .depthFirst()
+                                .relationships(LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
+                            for (Node candidate : isDescendantTraversal.traverse(comments[i]).nodes())
+                                if (candidate.getId() == posts[i].getId()) {
+                                    found++;
+                                    break;
+                                }
+                        }
+                        return found;
+                    }
+                },
+                new Variant("isNodeDescendantOfAncestor, TraversalPlans") {
+                    @Override
+                    long run(Node[] comments, Node[] posts) {
+                        long found = 0;
+                        for (int i = 0; i < comments.length; i++) {
+                            TraversalDescription isDescendantTraversal = TraversalPlans.of(db)
+                                .chain(LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
+                            for (Node candidate : isDescendantTraversal.traverse(comments[i]).nodes())
+                                if (candidate.getId() == posts[i].getId()) {
+                                    found++;
+                                    break;
+                                }
+                        }
+                        return found;
+                    }
+                }
+            };
+
+            // Run every variant once to warm up, then once timed.
+            for (Variant variant : variants)
+                variant.run(comments, posts);
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            long[] checksums = new long[variants.length];
+            for (int v = 0; v < variants.length; v++) {
+                long startTime = System.nanoTime();
+                long threadTotalStartTime = bean.getCurrentThreadCpuTime();
+                checksums[v] = variants[v].run(comments, posts);
+                long stopTime = System.nanoTime();
+                long threadTotalStopTime = bean.getCurrentThreadCpuTime();
+
+                long elapsedTime = (stopTime - startTime)/1000;
+                long threadTotalTime = (threadTotalStopTime - threadTotalStartTime)/1000;
+                long perCall = size == 0 ? 0 : (stopTime - startTime) / size;
+                System.out.println(variants[v].name + ": " + elapsedTime + " microseconds elapsed, "
+                                   + threadTotalTime + " microseconds thread total, "
+                                   + perCall + " nanoseconds per call");
+            }
+
+            // The two variants of each helper must agree.
+            for (int v = 0; v < variants.length; v += 2)
+                if (checksums[v] != checksums[v + 1]) {
+                    System.err.println(progName + ": " + variants[v].name + " and "
+                                       + variants[v + 1].name + " disagree");
+                    System.exit(1);
+                }
+        }
+    }
+
+    /**
+     * Parse the command line arguments.
+     * @param argv  Command line arguments
+     */
+    static void parseArgs(String[] argv) {
+        int argi = 0;
+        int argc = argv.length;
+        while (argi < argc && argv[argi].charAt(0) == '-') {
+            if (argv[argi].compareTo("-h") == 0) {
+                printUsage(System.out);
+                System.exit(0);
+            }
+            else {
+                System.err.println(progName + ": " + argv[argi] + ": Unrecognized option");
+                printUsage(System.err);
+                System.exit(1);
+            }
+            argi += 1;
+        }
+
+        if (argi + 1 > argc) {
+            System.err.println(progName + ": Missing input GRAPH");
+            printUsage(System.err);
+            System.exit(1);
+        }
+        graphName = argv[argi];
+        argi++;
+        if (argi + 1 > argc) {
+            System.err.println(progName + ": Missing COUNT");
+            printUsage(System.err);
+            System.exit(1);
+        }
+        try {
+            count = Integer.parseInt(argv[argi]);
+        }
+        catch (NumberFormatException e) {
+            count = -1;
+        }
+        if (count < 0) {
+            System.err.println(progName + ": COUNT must be a non-negative integer");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Print information about how to invoke this program.
+     */
+    static void printUsage(PrintStream stream) {
+        stream.println("Usage: " + progName + " [OPTION]... GRAPH COUNT");
+        stream.println("Time the walks from up to COUNT comments of GRAPH to their original");
+        stream.println("posts, building the traversal descriptions on every call and reusing");
+        stream.println("them from TraversalPlans.");
+        stream.println("  -h  print this help and exit");
+    }
+}
@@ -1,7 +1,7 @@
 /**
  * Interface between the LDBC driver and this Neo4j LDBC SNB implementation.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.glue;
@@ -117,7 +117,65 @@ public class Neo4jDb extends Db {
         registerOperationHandler(LdbcUpdate7AddComment.class, UpdateQuery7Handler.class);
         registerOperationHandler(LdbcUpdate8AddFriendship.class, UpdateQuery8Handler.class);
 
-        state = new Neo4jDbConnectionState(properties.get("url"));
+        /* Choose the indexes and caches to build; see the README. */
+        Settings settings = new Settings();
+        settings.parallelism = readInt(properties, "parallelism", settings.parallelism);
+        settings.nodeIdIndex = readBoolean(properties, "node_id_index", settings.nodeIdIndex);
+        settings.rootPostIndex = readBoolean(properties, "root_post_index", settings.rootPostIndex);
+        settings.timelineIndex = readBoolean(properties, "timeline_index", settings.timelineIndex);
+        settings.forumIndex = readBoolean(properties, "forum_index", settings.forumIndex);
+        settings.postTagIndex = readBoolean(properties, "post_tag_index", settings.postTagIndex);
+        settings.likesIndex = readBoolean(properties, "likes_index", settings.likesIndex);
+        settings.repliesIndex = readBoolean(properties, "replies_index", settings.repliesIndex);
+        settings.messageCountryIndex = readBoolean(properties, "message_country_index", settings.messageCountryIndex);
+        settings.placeIndex = readBoolean(properties, "place_index", settings.placeIndex);
+        settings.tagClassIndex = readBoolean(properties, "tag_class_index", settings.tagClassIndex);
+        settings.knowsIndex = readBoolean(properties, "knows_index", settings.knowsIndex);
+        settings.dictionaries = readBoolean(properties, "dictionaries", settings.dictionaries);
+        settings.personCache = readBoolean(properties, "person_cache", settings.personCache);
+        settings.replyProfileCacheCapacity = readInt(properties, "reply_profile_cache_capacity", settings.replyProfileCacheCapacity);
+        settings.resultCacheBytes = readLong(properties, "result_cache_bytes", settings.resultCacheBytes);
+        settings.query13MaxLength = readInt(properties, "query13_max_length", settings.query13MaxLength);
+
+        state = new Neo4jDbConnectionState(properties.get("url"), settings);
+    }
+
+    /** @return the value of an integer property or defaultValue if absent */
+    private static int readInt(Map<String, String> properties, String name, int defaultValue) throws DbException {
+        String value = properties.get(name);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e) {
+            throw new DbException("Invalid " + name + ": " + value, e);
+        }
+    }
+
+    /** @return the value of a long integer property or defaultValue if absent */
+    private static long readLong(Map<String, String> properties, String name, long defaultValue) throws DbException {
+        String value = properties.get(name);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new DbException("Invalid " + name + ": " + value, e);
+        }
+    }
+
+    /** @return the value of a boolean property or defaultValue if absent */
+    private static boolean readBoolean(Map<String, String> properties, String name, boolean defaultValue) throws DbException {
+        String value = properties.get(name);
+        if (value == null)
+            return defaultValue;
+        if (value.equalsIgnoreCase("true"))
+            return true;
+        if (value.equalsIgnoreCase("false"))
+            return false;
+        throw new DbException("Invalid " + name + ": " + value);
     }
 
     @Override
@@ -243,7 +301,8 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcQuery13 operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            LdbcQuery13Result r = Query13.query(client, operation.person1Id(), operation.person2Id());
+            int maxLength = state.getSettings().query13MaxLength;
+            LdbcQuery13Result r = Query13.query(client, operation.person1Id(), operation.person2Id(), maxLength);
             result.report(1, r, operation);
         }
     }
@@ -264,7 +323,13 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcShortQuery1PersonProfile operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            LdbcShortQuery1PersonProfileResult r = ShortQuery1.query(client, operation.personId());
+            ResultCache cache = state.getResultCache();
+            LdbcShortQuery1PersonProfileResult r = cache.get(ResultCache.Kind.PERSON_PROFILE, operation.personId(), 0);
+            if (r == null) {
+                long epoch = cache.epoch(ResultCache.Kind.PERSON_PROFILE, operation.personId());
+                r = ShortQuery1.query(client, operation.personId());
+                cache.put(ResultCache.Kind.PERSON_PROFILE, operation.personId(), 0, r, epoch);
+            }
             result.report(1, r, operation);
         }
     }
@@ -273,7 +338,13 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcShortQuery2PersonPosts operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            List<LdbcShortQuery2PersonPostsResult> r = ShortQuery2.query(client, operation.personId(), operation.limit());
+            ResultCache cache = state.getResultCache();
+            List<LdbcShortQuery2PersonPostsResult> r = cache.get(ResultCache.Kind.PERSON_POSTS, operation.personId(), operation.limit());
+            if (r == null) {
+                long epoch = cache.epoch(ResultCache.Kind.PERSON_POSTS, operation.personId());
+                r = ShortQuery2.query(client, operation.personId(), operation.limit());
+                cache.put(ResultCache.Kind.PERSON_POSTS, operation.personId(), operation.limit(), r, epoch);
+            }
             result.report(r.size(), r, operation);
         }
     }
@@ -282,7 +353,13 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcShortQuery3PersonFriends operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            List<LdbcShortQuery3PersonFriendsResult> r = ShortQuery3.query(client, operation.personId());
+            ResultCache cache = state.getResultCache();
+            List<LdbcShortQuery3PersonFriendsResult> r = cache.get(ResultCache.Kind.PERSON_FRIENDS, operation.personId(), 0);
+            if (r == null) {
+                long epoch = cache.epoch(ResultCache.Kind.PERSON_FRIENDS, operation.personId());
+                r = ShortQuery3.query(client, operation.personId());
+                cache.put(ResultCache.Kind.PERSON_FRIENDS, operation.personId(), 0, r, epoch);
+            }
             result.report(r.size(), r, operation);
         }
     }
@@ -291,7 +368,13 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcShortQuery4MessageContent operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            LdbcShortQuery4MessageContentResult r = ShortQuery4.query(client, operation.messageId());
+            ResultCache cache = state.getResultCache();
+            LdbcShortQuery4MessageContentResult r = cache.get(ResultCache.Kind.MESSAGE_CONTENT, operation.messageId(), 0);
+            if (r == null) {
+                long epoch = cache.epoch(ResultCache.Kind.MESSAGE_CONTENT, operation.messageId());
+                r = ShortQuery4.query(client, operation.messageId());
+                cache.put(ResultCache.Kind.MESSAGE_CONTENT, operation.messageId(), 0, r, epoch);
+            }
             result.report(1, r, operation);
         }
     }
@@ -300,7 +383,13 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcShortQuery5MessageCreator operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            LdbcShortQuery5MessageCreatorResult r = ShortQuery5.query(client, operation.messageId());
+            ResultCache cache = state.getResultCache();
+            LdbcShortQuery5MessageCreatorResult r = cache.get(ResultCache.Kind.MESSAGE_CREATOR, operation.messageId(), 0);
+            if (r == null) {
+                long epoch = cache.epoch(ResultCache.Kind.MESSAGE_CREATOR, operation.messageId());
+                r = ShortQuery5.query(client, operation.messageId());
+                cache.put(ResultCache.Kind.MESSAGE_CREATOR, operation.messageId(), 0, r, epoch);
+            }
             result.report(1, r, operation);
         }
     }
@@ -309,7 +398,13 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcShortQuery6MessageForum operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            LdbcShortQuery6MessageForumResult r = ShortQuery6.query(client, operation.messageId());
+            ResultCache cache = state.getResultCache();
+            LdbcShortQuery6MessageForumResult r = cache.get(ResultCache.Kind.MESSAGE_FORUM, operation.messageId(), 0);
+            if (r == null) {
+                long epoch = cache.epoch(ResultCache.Kind.MESSAGE_FORUM, operation.messageId());
+                r = ShortQuery6.query(client, operation.messageId());
+                cache.put(ResultCache.Kind.MESSAGE_FORUM, operation.messageId(), 0, r, epoch);
+            }
             result.report(1, r, operation);
         }
     }
@@ -318,7 +413,13 @@ public class Neo4jDb extends Db {
         @Override
         public void executeOperation(LdbcShortQuery7MessageReplies operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
-            List<LdbcShortQuery7MessageRepliesResult> r = ShortQuery7.query(client, operation.messageId());
+            ResultCache cache = state.getResultCache();
+            List<LdbcShortQuery7MessageRepliesResult> r = cache.get(ResultCache.Kind.MESSAGE_REPLIES, operation.messageId(), 0);
+            if (r == null) {
+                long epoch = cache.epoch(ResultCache.Kind.MESSAGE_REPLIES, operation.messageId());
+                r = ShortQuery7.query(client, operation.messageId());
+                cache.put(ResultCache.Kind.MESSAGE_REPLIES, operation.messageId(), 0, r, epoch);
+            }
             result.report(r.size(), r, operation);
         }
     }
@@ -331,6 +432,7 @@ public class Neo4jDb extends Db {
         public void executeOperation(LdbcUpdate1AddPerson operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
             UpdateQuery1.query(client, operation);
+            state.getResultCache().invalidatePerson(operation.personId());
             result.report(0, LdbcNoResult.INSTANCE, operation);
         }
     }
@@ -376,6 +478,8 @@ public class Neo4jDb extends Db {
         public void executeOperation(LdbcUpdate6AddPost operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
             UpdateQuery6.query(client, operation);
+            state.getResultCache().invalidatePerson(operation.authorPersonId());
+            state.getResultCache().invalidateMessage(operation.postId());
             result.report(0, LdbcNoResult.INSTANCE, operation);
         }
     }
@@ -385,6 +489,10 @@ public class Neo4jDb extends Db {
         public void executeOperation(LdbcUpdate7AddComment operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
             UpdateQuery7.query(client, operation);
+            state.getResultCache().invalidatePerson(operation.authorPersonId());
+            state.getResultCache().invalidateMessage(operation.commentId());
+            state.getResultCache().invalidateMessage(
+                operation.replyToPostId() != -1 ? operation.replyToPostId() : operation.replyToCommentId());
             result.report(0, LdbcNoResult.INSTANCE, operation);
         }
     }
@@ -394,6 +502,11 @@ public class Neo4jDb extends Db {
         public void executeOperation(LdbcUpdate8AddFriendship operation, Neo4jDbConnectionState state, ResultReporter result) throws DbException {
             GraphDatabaseService client = (GraphDatabaseService)state.getClient();
             UpdateQuery8.query(client, operation);
+            state.getResultCache().invalidatePerson(operation.person1Id());
+            state.getResultCache().invalidatePerson(operation.person2Id());
+            // Replies tell whether their author knows the author of
+            // the message replied to.
+            state.getResultCache().invalidateAll(ResultCache.Kind.MESSAGE_REPLIES);
             result.report(0, LdbcNoResult.INSTANCE, operation);
         }
     }
@@ -1,7 +1,7 @@
 /**
  * DB connection manager for this Neo4j LDBC SNB implementation.
  *
- * Copyright © 2016, 2018 Alain Kägi
+ * Copyright © 2016, 2018, 2026 Alain Kägi
  */
 
 package ldbc.glue;
@@ -14,18 +14,104 @@ import com.ldbc.driver.DbConnectionState;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 
+import ldbc.db.Dictionaries;
+import ldbc.db.FanOut;
+import ldbc.db.ForumIndex;
+import ldbc.db.KnowsIndex;
+import ldbc.db.LikesIndex;
+import ldbc.db.MessageCountryIndex;
+import ldbc.db.NodeIdIndex;
+import ldbc.db.PersonCache;
+import ldbc.db.PlaceIndex;
+import ldbc.db.PostTagIndex;
+import ldbc.db.RepliesIndex;
+import ldbc.db.ReplyScores;
+import ldbc.db.RootPostIndex;
+import ldbc.db.TagClassIndex;
+import ldbc.db.TimelineIndex;
+
 public class Neo4jDbConnectionState extends DbConnectionState {
 
     private GraphDatabaseService client;
+    private Settings settings;
+    private ResultCache resultCache;
 
-    public Neo4jDbConnectionState(String url) {
+    /**
+     * @param url       The path to the database
+     * @param settings  The indexes and caches to build
+     */
+    public Neo4jDbConnectionState(String url, Settings settings) {
         client = new GraphDatabaseFactory().newEmbeddedDatabase(new File(url));
+        this.settings = settings;
+        resultCache = new ResultCache(settings.resultCacheBytes);
+        prepare(client, settings);
+    }
+
+    /**
+     * Build the indexes and caches the queries use to skip graph walks.
+     *
+     * The benchmark connection and the standalone query drivers both
+     * call this after opening the database.
+     * @param db        A database handle
+     * @param settings  The indexes and caches to build
+     */
+    public static void prepare(GraphDatabaseService db, Settings settings) {
+        if (settings.nodeIdIndex)
+            NodeIdIndex.build(db);
+        if (settings.rootPostIndex)
+            RootPostIndex.build(db);
+        if (settings.timelineIndex)
+            TimelineIndex.build(db);
+        if (settings.forumIndex)
+            ForumIndex.build(db);
+        if (settings.postTagIndex)
+            PostTagIndex.build(db);
+        if (settings.likesIndex)
+            LikesIndex.build(db);
+        if (settings.repliesIndex)
+            RepliesIndex.build(db);
+        if (settings.messageCountryIndex)
+            MessageCountryIndex.build(db);
+        if (settings.placeIndex)
+            PlaceIndex.build(db);
+
+        // The tag class hierarchy never changes.
+        if (settings.tagClassIndex)
+            TagClassIndex.build(db);
+
+        // Snapshot the KNOWS graph once; the update queries keep it
+        // current from then on.
+        if (settings.knowsIndex)
+            KnowsIndex.build(db);
+
+        // The person cache below shares these dictionaries.
+        if (settings.dictionaries)
+            Dictionaries.build(db);
+
+        if (settings.personCache)
+            PersonCache.build(db);
+
+        // Remember query 14's reply profiles across queries.
+        if (settings.replyProfileCacheCapacity > 0)
+            ReplyScores.enableCache(db, settings.replyProfileCacheCapacity);
+
+        // Let queries visiting many friends split the work.
+        if (settings.parallelism > 1)
+            FanOut.enable(db, settings.parallelism);
     }
 
     public GraphDatabaseService getClient() {
         return client;
     }
 
+    public Settings getSettings() {
+        return settings;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
     @Override
     public void close() throws IOException {
     }
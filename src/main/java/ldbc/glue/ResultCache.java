@@ -0,0 +1,263 @@
+/**
+ * Bounded cache of short read query results.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.glue;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery1PersonProfileResult;
+import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery2PersonPostsResult;
+import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery3PersonFriendsResult;
+import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery4MessageContentResult;
+import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery5MessageCreatorResult;
+import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery6MessageForumResult;
+import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery7MessageRepliesResult;
+
+/**
+ * The results of recent short read queries, keyed by query and
+ * parameter.
+ *
+ * The LDBC parameter streams ask for the same persons and messages
+ * over and over; the handlers look here before running a short read
+ * query and record what they computed.  Each entry weighs the
+ * estimated number of bytes its result and bookkeeping take on the
+ * heap, and the cache holds up to a given number of bytes, evicting
+ * the least recently used entries first.  A cache of 0 bytes records
+ * nothing.
+ *
+ * The update handlers invalidate the persons and messages whose short
+ * reads their update changes.  A result computed while an update
+ * runs may predate it, so put() only records a result if no
+ * invalidation touched its query and ID since the handler read their
+ * epoch before running the query.  Epochs are kept per stripe of
+ * (query, ID) pairs, so updates about other persons and messages
+ * rarely turn a result away.
+ *
+ * The cache is safe to use from multiple threads.
+ */
+public class ResultCache {
+
+    /** The short read queries whose results we cache. */
+    public enum Kind {
+        PERSON_PROFILE,         // short read query 1
+        PERSON_POSTS,           // short read query 2
+        PERSON_FRIENDS,         // short read query 3
+        MESSAGE_CONTENT,        // short read query 4
+        MESSAGE_CREATOR,        // short read query 5
+        MESSAGE_FORUM,          // short read query 6
+        MESSAGE_REPLIES         // short read query 7
+    }
+
+    private static final class Key {
+        final Kind kind;
+        final long id;
+
+        Key(Kind kind, long id) {
+            this.kind = kind;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key k = (Key)o;
+            return kind == k.kind && id == k.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return kind.hashCode() * 31 + Long.hashCode(id);
+        }
+    }
+
+    /* Estimated sizes in bytes on a 64-bit JVM. */
+    private static final int OBJECT_BYTES = 16;     // header
+    private static final int FIELD_BYTES = 8;       // long or reference
+    private static final int ENTRY_BYTES = 96;      // key, entry, map node
+
+    /* The (query, ID) pairs share 1 << STRIPE_BITS epochs. */
+    private static final int STRIPE_BITS = 12;
+
+    private static final class Entry {
+        final int limit;
+        final Object result;
+        final long weight;
+        final int generation;
+
+        Entry(int limit, Object result, long weight, int generation) {
+            this.limit = limit;
+            this.result = result;
+            this.weight = weight;
+            this.generation = generation;
+        }
+    }
+
+    private final long capacity;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long weight = 0;
+
+    // Bumped to turn away results about the (query, ID) pairs of a
+    // stripe.
+    private final long[] stripeEpochs = new long[1 << STRIPE_BITS];
+
+    // Bumped to drop every entry of a kind at once.
+    private final int[] generations = new int[Kind.values().length];
+
+    /** Hold results of up to capacity bytes in total. */
+    public ResultCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the epoch to pass to put() once the query about the ID
+     *         has run
+     */
+    public synchronized long epoch(Kind kind, long id) {
+        // Both counters only grow, so their sum changes whenever
+        // either does.
+        return stripeEpochs[stripe(kind, id)] + generations[kind.ordinal()];
+    }
+
+    /**
+     * Look up a result.
+     * @param kind   The query
+     * @param id     The person or message ID the query is about
+     * @param limit  The query's limit, if any, else 0
+     * @return the cached result or null if none
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(Kind kind, long id, int limit) {
+        if (capacity == 0)
+            return null;
+        Key key = new Key(kind, id);
+        Entry entry = entries.get(key);
+        if (entry == null)
+            return null;
+        if (entry.generation != generations[kind.ordinal()]) {
+            // Dropped by invalidateAll(); free its weight now.
+            entries.remove(key);
+            weight -= entry.weight;
+            return null;
+        }
+        if (entry.limit != limit)
+            return null;
+        return (T)entry.result;
+    }
+
+    /**
+     * Record a result unless an invalidation of its query and ID
+     * happened since epoch.
+     * @param epoch  The epoch of the query and ID read before the query ran
+     */
+    public synchronized void put(Kind kind, long id, int limit, Object result, long epoch) {
+        if (capacity == 0 || result == null || epoch != epoch(kind, id))
+            return;
+        Entry entry = new Entry(limit, result, ENTRY_BYTES + bytes(result), generations[kind.ordinal()]);
+        if (entry.weight > capacity)
+            return;
+        Entry old = entries.put(new Key(kind, id), entry);
+        if (old != null)
+            weight -= old.weight;
+        weight += entry.weight;
+
+        // Evict the least recently used entries.
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (weight > capacity) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+        }
+    }
+
+    /** Forget the short reads about a person. */
+    public synchronized void invalidatePerson(long personId) {
+        remove(Kind.PERSON_PROFILE, personId);
+        remove(Kind.PERSON_POSTS, personId);
+        remove(Kind.PERSON_FRIENDS, personId);
+    }
+
+    /** Forget the short reads about a message. */
+    public synchronized void invalidateMessage(long messageId) {
+        remove(Kind.MESSAGE_CONTENT, messageId);
+        remove(Kind.MESSAGE_CREATOR, messageId);
+        remove(Kind.MESSAGE_FORUM, messageId);
+        remove(Kind.MESSAGE_REPLIES, messageId);
+    }
+
+    /** Forget every result of a query. */
+    public synchronized void invalidateAll(Kind kind) {
+        generations[kind.ordinal()]++;
+    }
+
+    /** @return the estimated size of a short read result */
+    private static long bytes(Object result) {
+        if (result instanceof List) {
+            List<?> rows = (List<?>)result;
+            long bytes = 2 * OBJECT_BYTES + (long)rows.size() * FIELD_BYTES;
+            for (Object row : rows)
+                bytes += bytes(row);
+            return bytes;
+        }
+        if (result instanceof LdbcShortQuery1PersonProfileResult) {
+            LdbcShortQuery1PersonProfileResult r = (LdbcShortQuery1PersonProfileResult)result;
+            return rowBytes(8) + stringBytes(r.firstName()) + stringBytes(r.lastName())
+                + stringBytes(r.locationIp()) + stringBytes(r.browserUsed()) + stringBytes(r.gender());
+        }
+        if (result instanceof LdbcShortQuery2PersonPostsResult) {
+            LdbcShortQuery2PersonPostsResult r = (LdbcShortQuery2PersonPostsResult)result;
+            return rowBytes(7) + stringBytes(r.messageContent())
+                + stringBytes(r.originalPostAuthorFirstName()) + stringBytes(r.originalPostAuthorLastName());
+        }
+        if (result instanceof LdbcShortQuery3PersonFriendsResult) {
+            LdbcShortQuery3PersonFriendsResult r = (LdbcShortQuery3PersonFriendsResult)result;
+            return rowBytes(4) + stringBytes(r.firstName()) + stringBytes(r.lastName());
+        }
+        if (result instanceof LdbcShortQuery4MessageContentResult) {
+            LdbcShortQuery4MessageContentResult r = (LdbcShortQuery4MessageContentResult)result;
+            return rowBytes(2) + stringBytes(r.messageContent());
+        }
+        if (result instanceof LdbcShortQuery5MessageCreatorResult) {
+            LdbcShortQuery5MessageCreatorResult r = (LdbcShortQuery5MessageCreatorResult)result;
+            return rowBytes(3) + stringBytes(r.firstName()) + stringBytes(r.lastName());
+        }
+        if (result instanceof LdbcShortQuery6MessageForumResult) {
+            LdbcShortQuery6MessageForumResult r = (LdbcShortQuery6MessageForumResult)result;
+            return rowBytes(5) + stringBytes(r.forumTitle())
+                + stringBytes(r.moderatorFirstName()) + stringBytes(r.moderatorLastName());
+        }
+        if (result instanceof LdbcShortQuery7MessageRepliesResult) {
+            LdbcShortQuery7MessageRepliesResult r = (LdbcShortQuery7MessageRepliesResult)result;
+            return rowBytes(7) + stringBytes(r.commentContent())
+                + stringBytes(r.replyAuthorFirstName()) + stringBytes(r.replyAuthorLastName());
+        }
+        return rowBytes(1);
+    }
+
+    /** @return the estimated size of a row with the given number of fields */
+    private static long rowBytes(int fields) {
+        return OBJECT_BYTES + (long)fields * FIELD_BYTES;
+    }
+
+    /** @return the estimated size of a string, its characters included */
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 2 * OBJECT_BYTES + FIELD_BYTES + 2L * s.length();
+    }
+
+    private static int stripe(Kind kind, long id) {
+        long h = (id * 31 + kind.ordinal()) * 0x9E3779B97F4A7C15L;
+        return (int)(h >>> (64 - STRIPE_BITS));
+    }
+
+    private void remove(Kind kind, long id) {
+        stripeEpochs[stripe(kind, id)]++;
+        Entry old = entries.remove(new Key(kind, id));
+        if (old != null)
+            weight -= old.weight;
+    }
+
+}
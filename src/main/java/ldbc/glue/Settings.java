@@ -0,0 +1,84 @@
+/**
+ * Settings of a connection to the database.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.glue;
+
+/**
+ * Which indexes and caches to build, how large to make them, and how
+ * far some queries may search.
+ *
+ * Every index and cache is optional: where one is missing, the
+ * queries walk the graph instead.  By default the indexes are built,
+ * the caches holding copies of the data are not, and queries run on
+ * the calling thread.  Neo4jDb reads the settings from the driver
+ * properties listed in the README.
+ */
+public class Settings {
+
+    /** The number of threads a complex read query may fan out to. */
+    public int parallelism = 1;
+
+    /** Resolve LDBC IDs with a hash probe rather than an index seek. */
+    public boolean nodeIdIndex = false;
+
+    /** Point every comment at its original post. */
+    public boolean rootPostIndex = true;
+
+    /** Sort every person's messages by creation date. */
+    public boolean timelineIndex = true;
+
+    /** Sort every person's forum memberships and locate every post. */
+    public boolean forumIndex = true;
+
+    /** Summarize the tags of every person's posts. */
+    public boolean postTagIndex = true;
+
+    /** Sort the likes every person's messages received. */
+    public boolean likesIndex = true;
+
+    /** Sort the replies every person's messages received. */
+    public boolean repliesIndex = true;
+
+    /** Record the country of every message. */
+    public boolean messageCountryIndex = true;
+
+    /** Map persons to cities and places to countries. */
+    public boolean placeIndex = true;
+
+    /** Close the tag class hierarchy. */
+    public boolean tagClassIndex = true;
+
+    /** Snapshot the KNOWS graph. */
+    public boolean knowsIndex = true;
+
+    /** Encode names and other properties with few distinct values. */
+    public boolean dictionaries = true;
+
+    /** Keep the properties of every person in memory. */
+    public boolean personCache = false;
+
+    /** The number of persons whose reply profiles we cache; 0 for none. */
+    public int replyProfileCacheCapacity = 0;
+
+    /** The bytes of short read results we cache; 0 for none. */
+    public long resultCacheBytes = 64L << 20;
+
+    /**
+     * The longest path query 13 looks for; longer paths are reported
+     * as missing.
+     */
+    public int query13MaxLength = Integer.MAX_VALUE;
+
+    /** @return settings building every index and cache */
+    public static Settings all() {
+        Settings settings = new Settings();
+        settings.nodeIdIndex = true;
+        settings.personCache = true;
+        settings.replyProfileCacheCapacity = 1 << 16;
+        return settings;
+    }
+
+}
@@ -0,0 +1,64 @@
+/**
+ * In-place sort of dated entries held in parallel arrays.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+/**
+ * Sort entries held at the same position of parallel primitive
+ * arrays: a date, an ID and, optionally, a further value.
+ *
+ * Entries sort in ascending order of date, then descending order of
+ * ID, so walking the arrays backwards yields the newest entry first,
+ * ties broken by the smaller ID.
+ */
+public final class DatedSort {
+
+    private DatedSort() {}
+
+    /** @return true if the first entry comes after the second */
+    public static boolean after(long date1, long id1, long date2, long id2) {
+        return date1 > date2 || date1 == date2 && id1 < id2;
+    }
+
+    /** Sort the first size entries of two parallel arrays, in place. */
+    public static void sort(long[] dates, long[] ids, int size) {
+        sort(dates, ids, null, size);
+    }
+
+    /**
+     * Sort the first size entries of three parallel arrays, in place.
+     * @param values  Moved along with the dates and IDs, or null
+     */
+    public static void sort(long[] dates, long[] ids, long[] values, int size) {
+        // Heap sort keeps the arrays in step without extra space.
+        for (int i = size / 2 - 1; i >= 0; i--)
+            siftDown(dates, ids, values, size, i);
+        for (int end = size - 1; end > 0; end--) {
+            swap(dates, ids, values, 0, end);
+            siftDown(dates, ids, values, end, 0);
+        }
+    }
+
+    /** Swap two entries of parallel arrays; values may be null. */
+    public static void swap(long[] dates, long[] ids, long[] values, int i, int j) {
+        long date = dates[i]; dates[i] = dates[j]; dates[j] = date;
+        long id = ids[i]; ids[i] = ids[j]; ids[j] = id;
+        if (values != null) {
+            long value = values[i]; values[i] = values[j]; values[j] = value;
+        }
+    }
+
+    private static void siftDown(long[] dates, long[] ids, long[] values, int size, int i) {
+        for (int child = 2 * i + 1; child < size; i = child, child = 2 * i + 1) {
+            if (child + 1 < size && after(dates[child + 1], ids[child + 1], dates[child], ids[child]))
+                child++;
+            if (!after(dates[child], ids[child], dates[i], ids[i]))
+                return;
+            swap(dates, ids, values, i, child);
+        }
+    }
+
+}
@@ -0,0 +1,22 @@
+/**
+ * Hashing shared by the primitive collections.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+class Hashing {
+
+    /**
+     * Map a key to a slot of a power-of-two table.
+     *
+     * LDBC and Neo4j IDs are dense and sequential, so we scramble
+     * them before masking to keep linear probing runs short.
+     */
+    static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & mask;
+    }
+
+}
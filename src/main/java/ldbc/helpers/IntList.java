@@ -0,0 +1,42 @@
+/**
+ * Growable list of int values.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of int values.
+ *
+ * Unlike ArrayList<Integer>, this list stores its elements unboxed.
+ * This class is not thread-safe.
+ */
+public class IntList {
+    private int[] elements;
+    private int size;
+
+    public IntList() { this(16); }
+
+    public IntList(int initialCapacity) {
+        elements = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public int size() { return size; }
+    public int get(int index) { return elements[index]; }
+    public void set(int index, int value) { elements[index] = value; }
+
+    public void add(int value) {
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = value;
+    }
+
+    /** Forget every element keeping the current capacity. */
+    public void clear() { size = 0; }
+
+    /** @return a copy of the elements trimmed to size */
+    public int[] toArray() { return Arrays.copyOf(elements, size); }
+}
@@ -0,0 +1,83 @@
+/**
+ * Primitive counts keyed by long values.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+import java.util.Arrays;
+
+/**
+ * Counts of occurrences of non-negative long keys, such as node IDs.
+ *
+ * Keys map to slots of two parallel arrays in the order they are
+ * first counted, so walking the counts is a loop over slots rather
+ * than a scan of a hash table.  Neither keys nor counts are boxed.
+ * clear() keeps the allocated capacity, so a counter reused across
+ * queries settles at the size of the largest query and stops
+ * allocating.  This class is not thread-safe.
+ */
+public class LongCounter {
+    private final LongIntMap slots;
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public LongCounter(int expectedSize) {
+        slots = new LongIntMap(expectedSize, -1);
+        keys = new long[Math.max(expectedSize, 1)];
+        counts = new int[keys.length];
+    }
+
+    /** @return the number of distinct keys counted */
+    public int size() { return size; }
+
+    /** @return the key of the given slot */
+    public long key(int slot) { return keys[slot]; }
+
+    /** @return the count of the given slot */
+    public int count(int slot) { return counts[slot]; }
+
+    /** @return the count of key, zero if never counted */
+    public int get(long key) {
+        int slot = slots.get(key);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /** Add delta to the count of key. */
+    public void add(long key, int delta) {
+        int slot = slots.get(key);
+        if (slot < 0) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            slot = size++;
+            slots.put(key, slot);
+            keys[slot] = key;
+            counts[slot] = 0;
+        }
+        counts[slot] += delta;
+    }
+
+    /** Reset the count of key to zero if ever counted. */
+    public void reset(long key) {
+        int slot = slots.get(key);
+        if (slot >= 0)
+            counts[slot] = 0;
+    }
+
+    /** Add every count of another counter. */
+    public void addAll(LongCounter other) {
+        for (int slot = 0; slot < other.size; slot++)
+            add(other.keys[slot], other.counts[slot]);
+    }
+
+    /** Forget every count keeping the current capacity. */
+    public void clear() {
+        slots.clear();
+        size = 0;
+    }
+
+}
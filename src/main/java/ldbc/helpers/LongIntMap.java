@@ -0,0 +1,125 @@
+/**
+ * Primitive map from long keys to int values.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from long keys to int values.
+ *
+ * The map avoids boxing both keys and values.  Keys must be
+ * non-negative (Neo4j node IDs and LDBC IDs both qualify) since -1
+ * marks an empty slot.  Looking up a missing key returns the missing
+ * value given at construction time.  This class is not thread-safe.
+ */
+public class LongIntMap {
+    private static final long EMPTY = -1;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() { return size; }
+
+    /** @return the value associated with key or the missing value */
+    public int get(long key) {
+        for (int slot = Hashing.slot(key, mask); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key)
+                return values[slot];
+            if (candidate == EMPTY)
+                return missingValue;
+        }
+    }
+
+    /** @return true if the map holds a value for key */
+    public boolean containsKey(long key) {
+        for (int slot = Hashing.slot(key, mask); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key)
+                return true;
+            if (candidate == EMPTY)
+                return false;
+        }
+    }
+
+    /** Associate value with key replacing any previous value. */
+    public void put(long key, int value) {
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size > (mask + 1) / 4 * 3)
+            rehash();
+    }
+
+    /**
+     * Add delta to the value associated with key.
+     * @return the new value
+     * A missing key starts from zero.
+     */
+    public int increment(long key, int delta) {
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            values[slot] = 0;
+            size++;
+        }
+        int value = values[slot] += delta;
+        if (size > (mask + 1) / 4 * 3)
+            rehash();
+        return value;
+    }
+
+    /** Remove every entry keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY)
+                continue;
+            int slot = Hashing.slot(oldKeys[i], mask);
+            while (keys[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity / 4 * 3 <= expectedSize)
+            capacity *= 2;
+        return capacity;
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Growable list of long values.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of long values.
+ *
+ * Unlike ArrayList<Long>, this list stores its elements unboxed.
+ * This class is not thread-safe.
+ */
+public class LongList {
+    private long[] elements;
+    private int size;
+
+    public LongList() { this(16); }
+
+    public LongList(int initialCapacity) {
+        elements = new long[Math.max(initialCapacity, 1)];
+    }
+
+    public int size() { return size; }
+    public long get(int index) { return elements[index]; }
+    public void set(int index, long value) { elements[index] = value; }
+
+    public void add(long value) {
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = value;
+    }
+
+    /** Forget every element keeping the current capacity. */
+    public void clear() { size = 0; }
+
+    /** @return a copy of the elements trimmed to size */
+    public long[] toArray() { return Arrays.copyOf(elements, size); }
+}
@@ -0,0 +1,118 @@
+/**
+ * Primitive map from long keys to long values.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from long keys to long values.
+ *
+ * The map avoids boxing both keys and values.  Keys must be
+ * non-negative (Neo4j node IDs and LDBC IDs both qualify) since -1
+ * marks an empty slot.  Looking up a missing key returns the missing
+ * value given at construction time.  This class is not thread-safe.
+ */
+public class LongLongMap {
+    private static final long EMPTY = -1;
+
+    private final long missingValue;
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    public LongLongMap(int expectedSize, long missingValue) {
+        this.missingValue = missingValue;
+        allocate(LongIntMap.tableSizeFor(expectedSize));
+    }
+
+    public int size() { return size; }
+
+    /** @return the value associated with key or the missing value */
+    public long get(long key) {
+        for (int slot = Hashing.slot(key, mask); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key)
+                return values[slot];
+            if (candidate == EMPTY)
+                return missingValue;
+        }
+    }
+
+    /** @return true if the map holds a value for key */
+    public boolean containsKey(long key) {
+        for (int slot = Hashing.slot(key, mask); ; slot = (slot + 1) & mask) {
+            long candidate = keys[slot];
+            if (candidate == key)
+                return true;
+            if (candidate == EMPTY)
+                return false;
+        }
+    }
+
+    /** Associate value with key replacing any previous value. */
+    public void put(long key, long value) {
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+        if (size > (mask + 1) / 4 * 3)
+            rehash();
+    }
+
+    /**
+     * Add delta to the value associated with key.
+     * @return the new value
+     * A missing key starts from zero.
+     */
+    public long increment(long key, long delta) {
+        int slot = Hashing.slot(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            values[slot] = 0;
+            size++;
+        }
+        long value = values[slot] += delta;
+        if (size > (mask + 1) / 4 * 3)
+            rehash();
+        return value;
+    }
+
+    /** Remove every entry keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY)
+                continue;
+            int slot = Hashing.slot(oldKeys[i], mask);
+            while (keys[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+}
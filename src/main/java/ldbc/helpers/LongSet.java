@@ -0,0 +1,79 @@
+/**
+ * Primitive set of long values.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash set of non-negative long values.
+ *
+ * The set avoids boxing its elements.  Elements must be non-negative
+ * since -1 marks an empty slot.  This class is not thread-safe.
+ */
+public class LongSet {
+    private static final long EMPTY = -1;
+
+    private long[] elements;
+    private int mask;
+    private int size;
+
+    public LongSet(int expectedSize) {
+        allocate(LongIntMap.tableSizeFor(expectedSize));
+    }
+
+    public int size() { return size; }
+
+    /** @return true if the set contains value */
+    public boolean contains(long value) {
+        for (int slot = Hashing.slot(value, mask); ; slot = (slot + 1) & mask) {
+            long candidate = elements[slot];
+            if (candidate == value)
+                return true;
+            if (candidate == EMPTY)
+                return false;
+        }
+    }
+
+    /** @return true if value was not already in the set */
+    public boolean add(long value) {
+        int slot = Hashing.slot(value, mask);
+        while (elements[slot] != EMPTY) {
+            if (elements[slot] == value)
+                return false;
+            slot = (slot + 1) & mask;
+        }
+        elements[slot] = value;
+        if (++size > (mask + 1) / 4 * 3)
+            rehash();
+        return true;
+    }
+
+    /** Remove every element keeping the current capacity. */
+    public void clear() {
+        Arrays.fill(elements, EMPTY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        elements = new long[capacity];
+        Arrays.fill(elements, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] oldElements = elements;
+        allocate(elements.length * 2);
+        for (long value : oldElements) {
+            if (value == EMPTY)
+                continue;
+            int slot = Hashing.slot(value, mask);
+            while (elements[slot] != EMPTY)
+                slot = (slot + 1) & mask;
+            elements[slot] = value;
+        }
+    }
+}
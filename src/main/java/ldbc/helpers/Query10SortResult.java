@@ -1,7 +1,7 @@
 /**
  * Helper class for complex read query 10.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.helpers;
@@ -11,12 +11,12 @@ import org.neo4j.graphdb.Node;
 /**
  * A temporary holder of one query 10 result.
  *
- * We accumulate query 10 results temporarily in a priority queue
- * derived from this class.  We only accumulate enough information
- * either necessary to sort elements or to retrieve additional fields
- * later.
+ * We accumulate query 10 results temporarily in a top-K selection
+ * holding values of this class.  We only accumulate enough
+ * information either necessary to sort elements or to retrieve
+ * additional fields later.
  */
-public class Query10SortResult implements Comparable<Query10SortResult> {
+public class Query10SortResult {
     private final Node friend;
     private final long friendId;
     private final int commonInterestScore;
@@ -31,22 +31,4 @@ public class Query10SortResult implements Comparable<Query10SortResult> {
     public Node friend() { return friend; }
     public long friendId() { return friendId; }
     public int commonInterestScore() { return commonInterestScore; }
-
-    /**
-     * Define a sort order for our class.
-     *
-     * It is exactly the reverse of the intended order so we can
-     * identify an unwanted element by its 'high' priority.
-     */
-    public int compareTo(Query10SortResult r) {
-        int s1 = this.commonInterestScore;
-        int s2 = r.commonInterestScore();
-        if (s1 == s2) {
-            long id1 = this.friendId;
-            long id2 = r.friendId();
-            return Long.compare(id2, id1);
-        }
-        else
-            return Integer.compare(s1, s2); // descending
-    }
 }
@@ -1,7 +1,7 @@
 /**
  * Helper class for complex read query 2.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.helpers;
@@ -11,12 +11,12 @@ import org.neo4j.graphdb.Node;
 /**
  * A temporary holder of one query 2 result.
  *
- * We accumulate query 2 results temporarily in a priority queue
- * derived from this class.  We only accumulate enough information
- * either necessary to sort elements or to retrieve additional fields
- * later.
+ * We accumulate query 2 results temporarily in a top-K selection
+ * holding values of this class.  We only accumulate enough
+ * information either necessary to sort elements or to retrieve
+ * additional fields later.
  */
-public class Query2SortResult implements Comparable<Query2SortResult> {
+public class Query2SortResult {
     private final Node friend;
     private final Node message;
     private final long messageId;
@@ -34,22 +34,4 @@ public class Query2SortResult implements Comparable<Query2SortResult> {
     public Node message() { return message; }
     public long messageId() { return messageId; }
     public long messageCreationDate() { return messageCreationDate; }
-
-    /**
-     * Define a sort order for our class.
-     *
-     * It is exactly the reverse of the intended order so we can
-     * identify an unwanted element by its 'high' priority.
-     */
-    public int compareTo(Query2SortResult r) {
-        long d1 = this.messageCreationDate;
-        long d2 = r.messageCreationDate();
-        if (d1 == d2) {
-            long id1 = this.messageId;
-            long id2 = r.messageId();
-            return Long.compare(id2, id1);
-        }
-        else
-            return Long.compare(d1, d2); // descending
-    }
 }
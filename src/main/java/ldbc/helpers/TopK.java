@@ -0,0 +1,211 @@
+/**
+ * Bounded selection of the best entries.
+ *
+ * Copyright © 2026 Alain Kägi
+ */
+
+package ldbc.helpers;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * The best entries among candidates ranked by two primitive keys.
+ *
+ * Entries rank by a primary key, then by a secondary key, each in
+ * the order given at construction time, then (optionally) by a
+ * comparator over their values.  At most limit entries are kept in a
+ * heap whose root is the worst entry kept so far, so a candidate
+ * worse than the root is rejected with one or two key comparisons.
+ * Callers ask admits() before building a candidate's value and so
+ * allocate nothing for candidates that would be dropped anyway.
+ * Callers with a costly secondary key can first ask admits() with the
+ * primary key alone, the current admission threshold, and skip
+ * loading the secondary key of hopeless candidates.
+ *
+ * Once all candidates are in, sort() orders the entries best first in
+ * place; the accessors then walk them by rank.  No entry may be added
+ * after sorting.  This class is not thread-safe.
+ */
+public class TopK<T> {
+
+    /** The order in which a key ranks entries, best first. */
+    public enum Order { ASCENDING, DESCENDING }
+
+    private final int limit;
+    private final boolean primaryDescending;
+    private final boolean secondaryDescending;
+    private final Comparator<? super T> tieBreaker;
+
+    private long[] primaries;
+    private long[] secondaries;
+    private Object[] values;
+    private int size;
+
+    public TopK(int limit, Order primaryOrder, Order secondaryOrder) {
+        this(limit, primaryOrder, secondaryOrder, null);
+    }
+
+    /**
+     * @param tieBreaker  Orders values, best first, of entries whose
+     *                    keys are equal; null if any order will do
+     */
+    public TopK(int limit, Order primaryOrder, Order secondaryOrder,
+                Comparator<? super T> tieBreaker) {
+        this.limit = limit;
+        this.primaryDescending = primaryOrder == Order.DESCENDING;
+        this.secondaryDescending = secondaryOrder == Order.DESCENDING;
+        this.tieBreaker = tieBreaker;
+        int capacity = Math.max(1, Math.min(limit, 16));
+        primaries = new long[capacity];
+        secondaries = new long[capacity];
+        values = new Object[capacity];
+    }
+
+    /** @return the number of entries kept */
+    public int size() { return size; }
+
+    /** @return the primary key of the entry at the given rank */
+    public long primary(int rank) { return primaries[rank]; }
+
+    /** @return the secondary key of the entry at the given rank */
+    public long secondary(int rank) { return secondaries[rank]; }
+
+    /** @return the value of the entry at the given rank */
+    @SuppressWarnings("unchecked")
+    public T get(int rank) { return (T)values[rank]; }
+
+    /**
+     * Would a candidate with these keys be kept?
+     *
+     * A candidate whose keys equal those of the worst entry is only
+     * admitted when a tie breaker may still rank it higher.
+     */
+    public boolean admits(long primary, long secondary) {
+        if (size < limit)
+            return true;
+        if (limit == 0)
+            return false;
+        int c = compareKeys(primary, secondary, 0);
+        return c > 0 || c == 0 && tieBreaker != null;
+    }
+
+    /**
+     * Could a candidate with this primary key be kept, whatever its
+     * secondary key?
+     *
+     * Once the selection is full, only candidates whose primary key
+     * ranks at or above that of the worst entry are worth a closer
+     * look.
+     */
+    public boolean admits(long primary) {
+        if (size < limit)
+            return true;
+        if (limit == 0)
+            return false;
+        int c = Long.compare(primary, primaries[0]);
+        return (primaryDescending ? c : -c) >= 0;
+    }
+
+    /**
+     * Offer a candidate.
+     * @return true if the candidate was kept
+     */
+    public boolean add(long primary, long secondary, T value) {
+        if (size < limit) {
+            if (size == primaries.length)
+                grow();
+            primaries[size] = primary;
+            secondaries[size] = secondary;
+            values[size] = value;
+            siftUp(size++);
+            return true;
+        }
+        if (limit == 0 || compare(primary, secondary, value, 0) <= 0)
+            return false;
+        primaries[0] = primary;
+        secondaries[0] = secondary;
+        values[0] = value;
+        siftDown(0, size);
+        return true;
+    }
+
+    /**
+     * Offer every entry kept by another selection ranking entries the
+     * same way, as when merging partial selections.
+     */
+    @SuppressWarnings("unchecked")
+    public void addAll(TopK<? extends T> other) {
+        for (int i = 0; i < other.size; i++)
+            add(other.primaries[i], other.secondaries[i], (T)other.values[i]);
+    }
+
+    /** Order the entries best first. */
+    public void sort() {
+        // Moving the worst entry of the shrinking heap to its end
+        // leaves the array ordered best first.
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    /** @return positive if the keys rank above the entry at slot */
+    private int compareKeys(long primary, long secondary, int slot) {
+        int c = Long.compare(primary, primaries[slot]);
+        if (c == 0) {
+            c = Long.compare(secondary, secondaries[slot]);
+            return secondaryDescending ? c : -c;
+        }
+        return primaryDescending ? c : -c;
+    }
+
+    /** @return positive if the candidate ranks above the entry at slot */
+    @SuppressWarnings("unchecked")
+    private int compare(long primary, long secondary, T value, int slot) {
+        int c = compareKeys(primary, secondary, slot);
+        if (c == 0 && tieBreaker != null)
+            c = -tieBreaker.compare(value, (T)values[slot]);
+        return c;
+    }
+
+    /** @return positive if the entry at slot i ranks above the one at slot j */
+    @SuppressWarnings("unchecked")
+    private int compareSlots(int i, int j) {
+        return compare(primaries[i], secondaries[i], (T)values[i], j);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (compareSlots(i, parent) >= 0)
+                return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int end) {
+        for (int child = 2 * i + 1; child < end; i = child, child = 2 * i + 1) {
+            if (child + 1 < end && compareSlots(child + 1, child) < 0)
+                child++;
+            if (compareSlots(i, child) <= 0)
+                return;
+            swap(i, child);
+        }
+    }
+
+    private void swap(int i, int j) {
+        long primary = primaries[i]; primaries[i] = primaries[j]; primaries[j] = primary;
+        long secondary = secondaries[i]; secondaries[i] = secondaries[j]; secondaries[j] = secondary;
+        Object value = values[i]; values[i] = values[j]; values[j] = value;
+    }
+
+    private void grow() {
+        int capacity = (int)Math.min((long)limit, primaries.length * 2L);
+        primaries = Arrays.copyOf(primaries, capacity);
+        secondaries = Arrays.copyOf(secondaries, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+}
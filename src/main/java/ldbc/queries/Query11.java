@@ -1,27 +1,27 @@
 /**
  * Complex read query 11.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.PriorityQueue;
+import java.util.Comparator;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.traversal.TraversalDescription;
-import org.neo4j.graphdb.traversal.Evaluators;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery11Result;
 
+import ldbc.db.CircleOfFriends;
+import ldbc.db.FanOut;
 import ldbc.db.LdbcUtils;
 import ldbc.helpers.Query11SortResult;
+import ldbc.helpers.TopK;
 
 public class Query11 {
 
@@ -34,70 +34,78 @@ public class Query11 {
      * @param limit        An upper bound on the size of results returned
      * @return friends who've started a job in that country before that year
      */
-    public static List<LdbcQuery11Result> query(GraphDatabaseService db,
+    public static List<LdbcQuery11Result> query(final GraphDatabaseService db,
                                                 long personId,
-                                                String countryName, int year,
-                                                int limit) {
+                                                String countryName, final int year,
+                                                final int limit) {
         List<LdbcQuery11Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.  Also we delay gathering the full set of data
-        // until we know a given entry is a keeper.
-        Queue<Query11SortResult> queue = new PriorityQueue<>(limit + 1);
-
-        // Create a traversal description for the person's friends and
-        // friends of friends.
-        TraversalDescription knowsTraversal = db.traversalDescription()
-            .breadthFirst()
-            .relationships(LdbcUtils.EdgeType.KNOWS)
-            .evaluator(Evaluators.toDepth(2))
-            .evaluator(Evaluators.excludeStartPosition());
+        // Keep the 'limit' earliest jobs, ties broken by friend ID
+        // and then by organization name (last first).  Also we delay
+        // gathering the full set of data until we know a given entry
+        // is a keeper.
+        final Comparator<Query11SortResult> byOrganizationName = new Comparator<Query11SortResult>() {
+            @Override
+            public int compare(Query11SortResult r1, Query11SortResult r2) {
+                return r2.organizationName().compareTo(r1.organizationName());
+            }
+        };
+        TopK<Query11SortResult> top = new TopK<>(
+            limit, TopK.Order.ASCENDING, TopK.Order.ASCENDING, byOrganizationName);
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
             Node country = LdbcUtils.findCountryByName(db, countryName);
-            long countryId = LdbcUtils.getId(country);
-
-            // Iterate over the person's friends and friends of friends.
-            for (Node friend : knowsTraversal.traverse(person).nodes()) {
-
-                // Iterate over the friend's organizations.
-                for (Relationship edgeToOrganization : friend.getRelationships(LdbcUtils.EdgeType.WORKS_AT)) {
-                    // Skip start date on or after year.
-                    int startYear = LdbcUtils.getWorkFrom(edgeToOrganization);
-                    if (startYear >= year)
-                        continue;
-
-                    // Skip organizations not in the country.
-                    Node organization = edgeToOrganization.getEndNode();
-                    if (LdbcUtils.getId(LdbcUtils.findCountryOfOrganization(db, organization)) != countryId)
-                        continue;
-
-                    // Create a new temporary result entry.
-                    Query11SortResult r = new Query11SortResult(
-                        friend,
-                        LdbcUtils.getId(friend),
-                        LdbcUtils.getName(organization),
-                        startYear);
-
-                    // Add the entry to the queue.
-                    queue.add(r);
-
-                    // Eliminate the 'highest' priority entry if we have
-                    // reached the target number of results.
-                    Query11SortResult rr;
-                    if (queue.size() > limit)
-                        rr = queue.poll();
-                }
-            }
-
-            // Copy the results by adding elements at the beginning of
-            // the final list filling the additional fields as we go.
-            while (queue.size() != 0) {
-                Query11SortResult r = queue.poll();
+            final long countryNodeId = country.getId();
+
+            // Iterate over the person's friends and friends of
+            // friends, in slices if running in parallel, and merge
+            // the earliest jobs of each slice.
+            final CircleOfFriends circle = LdbcUtils.findCircleOfFriends(db, person, 2);
+            List<TopK<Query11SortResult>> partials = FanOut.map(
+                db, circle.size(),
+                new FanOut.Task<TopK<Query11SortResult>>() {
+                    @Override
+                    public TopK<Query11SortResult> run(int start, int end) {
+                        TopK<Query11SortResult> partial = new TopK<>(
+                            limit, TopK.Order.ASCENDING, TopK.Order.ASCENDING, byOrganizationName);
+                        for (int i = start; i < end; i++) {
+                            Node friend = db.getNodeById(circle.nodeId(i));
+
+                            // Iterate over the friend's organizations.
+                            for (Relationship edgeToOrganization : friend.getRelationships(LdbcUtils.EdgeType.WORKS_AT)) {
+                                // Skip start date on or after year.
+                                int startYear = LdbcUtils.getWorkFrom(edgeToOrganization);
+                                if (startYear >= year)
+                                    continue;
+
+                                // Skip organizations not in the country.
+                                Node organization = edgeToOrganization.getEndNode();
+                                if (LdbcUtils.findCountryIdOfOrganization(db, organization) != countryNodeId)
+                                    continue;
+
+                                // Add a new temporary result entry unless it cannot
+                                // make the cut.
+                                long friendId = LdbcUtils.getId(friend);
+                                if (partial.admits(startYear, friendId))
+                                    partial.add(startYear, friendId, new Query11SortResult(
+                                        friend,
+                                        friendId,
+                                        LdbcUtils.getName(organization),
+                                        startYear));
+                            }
+                        }
+                        return partial;
+                    }
+                });
+            for (TopK<Query11SortResult> partial : partials)
+                top.addAll(partial);
+
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                Query11SortResult r = top.get(i);
                 Node friend = r.friend();
                 LdbcQuery11Result s = new LdbcQuery11Result(
                     r.friendId(),
@@ -105,7 +113,7 @@ public class Query11 {
                     LdbcUtils.getLastName(friend),
                     r.organizationName(),
                     r.organizationStartYear());
-                result.add(0, s);
+                result.add(s);
             }
         }
         return result;
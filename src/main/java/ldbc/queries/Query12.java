@@ -1,7 +1,7 @@
 /**
  * Complex read query 12.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -12,8 +12,6 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.Queue;
-import java.util.PriorityQueue;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
@@ -24,7 +22,9 @@ import org.neo4j.graphdb.Relationship;
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery12Result;
 
 import ldbc.db.LdbcUtils;
+import ldbc.db.TagsOfClass;
 import ldbc.helpers.Query12SortResult;
+import ldbc.helpers.TopK;
 
 public class Query12 {
 
@@ -42,14 +42,11 @@ public class Query12 {
                                                 int limit) {
         List<LdbcQuery12Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work,
-        // we inverse the sort order so we know it is safe to
-        // remove the entry with highest priority when the queue
-        // reaches 'limit + 1' elements.  Also we delay gathering
-        // the full set of data until we know a given entry is a
-        // keeper.
-        Queue<Query12SortResult> queue = new PriorityQueue<>(limit + 1);
+        // Keep the 'limit' friends with the most replies, ties
+        // broken by ID.  Also we delay gathering the full set of data
+        // until we know a given entry is a keeper.
+        TopK<Query12SortResult> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
         Map<Node, Set<String>> tags = new HashMap<>();
         Map<Node, Integer> counts = new HashMap<>();
@@ -57,7 +54,9 @@ public class Query12 {
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
             Node tagClass = LdbcUtils.findTagClassByName(db, tagClassName);
-            long tagClassId = LdbcUtils.getId(tagClass);
+
+            // Resolve the class hierarchy once for the whole query.
+            TagsOfClass tagsOfClass = LdbcUtils.findTagsOfClass(db, tagClass);
 
             // Iterate over the person's friends.
             for (Relationship edgeToFriend : person.getRelationships(Direction.BOTH, LdbcUtils.EdgeType.KNOWS)) {
@@ -84,9 +83,7 @@ public class Query12 {
                         Node tag = edgeToTag.getEndNode();
 
                         // Skip tag not falling under the tag class' umbrella.
-                        Node tagClassOfThisTag = LdbcUtils.findNeighbor(db, tag, LdbcUtils.EdgeType.HAS_TYPE, Direction.OUTGOING);
-                        if (LdbcUtils.getId(tagClassOfThisTag) != tagClassId
-                            && !LdbcUtils.isNodeDescendantOfAncestor(db, tagClassOfThisTag, tagClass, LdbcUtils.EdgeType.IS_SUBCLASS_OF, Direction.OUTGOING))
+                        if (!tagsOfClass.contains(tag))
                             continue;
 
                         String tagName = LdbcUtils.getName(tag);
@@ -114,26 +111,20 @@ public class Query12 {
             for (Map.Entry<Node, Integer> e : counts.entrySet()) {
                 Node friend = e.getKey();
 
-                // Create a new temporary result entry.
-                Query12SortResult r = new Query12SortResult(
-                    friend,
-                    LdbcUtils.getId(friend),
-                    e.getValue());
-
-                // Add the entry to the queue.
-                queue.add(r);
-
-                // Eliminate the 'highest' priority entry if we have
-                // reached the target number of results.
-                Query12SortResult rr;
-                if (queue.size() > limit)
-                    rr = queue.poll();
+                // Add a new temporary result entry unless it cannot
+                // make the cut.
+                long friendId = LdbcUtils.getId(friend);
+                int replyCount = e.getValue();
+                if (top.admits(replyCount, friendId))
+                    top.add(replyCount, friendId,
+                            new Query12SortResult(friend, friendId, replyCount));
             }
 
-            // Copy the results by adding elements at the beginning of
-            // the final list filling the additional fields as we go.
-            while (queue.size() != 0) {
-                Query12SortResult r = queue.poll();
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                Query12SortResult r = top.get(i);
                 Node friend = r.friend();
                 LdbcQuery12Result s = new LdbcQuery12Result(
                     r.friendId(),
@@ -141,7 +132,7 @@ public class Query12 {
                     LdbcUtils.getLastName(friend),
                     tags.get(friend),
                     r.replyCount());
-                result.add(0, s);
+                result.add(s);
             }
         }
         return result;
@@ -1,7 +1,7 @@
 /**
  * Complex read query 13.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -9,8 +9,6 @@ package ldbc.queries;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Path;
-import org.neo4j.graphdb.traversal.TraversalDescription;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery13Result;
 
@@ -27,27 +25,31 @@ public class Query13 {
      */
     public static LdbcQuery13Result query(GraphDatabaseService db,
                                           long person1Id, long person2Id) {
-        LdbcQuery13Result result = null;
+        return query(db, person1Id, person2Id, Integer.MAX_VALUE);
+    }
 
-        // Create a traversal description for a person's friends.
-        TraversalDescription knowsTraversal = db.traversalDescription()
-            .breadthFirst()
-            .relationships(LdbcUtils.EdgeType.KNOWS);
+    /**
+     * Single shortest path with a bound on its length.
+     * @param db         A database handle
+     * @param person1Id  A first person ID
+     * @param person2Id  A second person ID
+     * @param maxLength  An upper bound on the path length searched
+     * @return the shortest path between person1 and person2 or -1
+     * if none exists within maxLength edges.
+     */
+    public static LdbcQuery13Result query(GraphDatabaseService db,
+                                          long person1Id, long person2Id,
+                                          int maxLength) {
+        LdbcQuery13Result result = null;
 
         try (Transaction tx = db.beginTx()) {
             Node person1 = LdbcUtils.findPersonById(db, person1Id);
+            Node person2 = LdbcUtils.findPersonById(db, person2Id);
             int pathLength = -1;
 
-            // Iterate over person 1's friends.
-            for (Path pathToFriend : knowsTraversal.traverse(person1)) {
-
-                Node person2 = pathToFriend.endNode();
-                if (LdbcUtils.getId(person2) == person2Id) {
-                    pathLength = pathToFriend.length();
-                    break;
-                }
-
-            }
+            // Search from both persons at once.
+            if (person1 != null && person2 != null)
+                pathLength = LdbcUtils.findShortestPathLength(db, person1, person2, maxLength);
 
             result = new LdbcQuery13Result(pathLength);
         }
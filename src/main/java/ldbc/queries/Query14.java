@@ -1,7 +1,7 @@
 /**
  * Complex read query 14.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -11,21 +11,16 @@ import java.util.ArrayList;
 
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.Direction;
-import org.neo4j.graphdb.Path;
-import org.neo4j.graphdb.PathExpanders;
-import org.neo4j.graphalgo.GraphAlgoFactory;
-import org.neo4j.graphalgo.PathFinder;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery14Result;
 
 import ldbc.db.LdbcUtils;
+import ldbc.db.ReplyScores;
+import ldbc.helpers.LongLongMap;
 
 public class Query14 {
 
@@ -41,80 +36,39 @@ public class Query14 {
                                                 long person2Id) {
         List<LdbcQuery14Result> result = new ArrayList<>();
 
-        // Create a path finder for all shortest paths between
-        // person1 and person2.
-        PathFinder<Path> finder = GraphAlgoFactory.shortestPath(
-            PathExpanders.forTypeAndDirection(
-                LdbcUtils.EdgeType.KNOWS,
-                Direction.BOTH),
-            Integer.MAX_VALUE);
-
         try (Transaction tx = db.beginTx()) {
             Node person1 = LdbcUtils.findPersonById(db, person1Id);
             Node person2 = LdbcUtils.findPersonById(db, person2Id);
 
+            if (person1 == null || person2 == null)
+                return result;
+
+            // Enumerate all the shortest paths up front.
+            List<long[]> paths = LdbcUtils.findAllShortestPaths(db, person1, person2);
+
+            // Each person's replies are scanned at most once no matter
+            // how many paths or pairs the person is part of.
+            ReplyScores scores = new ReplyScores(db);
+            LongLongMap ids = new LongLongMap(64, -1);
+
             // Go through each path, identify the nodes, and compute
             // their weight.
-            for (Path path : finder.findAllPaths(person1, person2)) {
+            for (long[] path : paths) {
                 double weight = 0.0;
-                Node prevFriend = null;
-                long prevFriendId = -1;
-                List<Long> idsInPath = new ArrayList<>();
+                List<Long> idsInPath = new ArrayList<>(path.length);
 
                 // For each node on the path.
-                for (Node friend : path.nodes()) {
-                    long friendId = LdbcUtils.getId(friend);
-
+                for (int i = 0; i < path.length; i++) {
                     // If we have a pair of nodes...
-                    if (prevFriend != null) {
-                        // First look at the relationship previous friend -> friend.
-
-                        // Scan the previous friend's messages.
-                        for (Relationship edgeFromMessage : prevFriend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                            Node message = edgeFromMessage.getStartNode();
-
-                            // Skip posts.
-                            if (LdbcUtils.isMessagePost(message))
-                                continue;
-
-                            // Get the message being replied to.
-                            Node parentMessage = LdbcUtils.findNeighbor(db, message, LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
-                            // And its author.
-                            Node parentMessageAuthor = LdbcUtils.findNeighbor(db, parentMessage, LdbcUtils.EdgeType.HAS_CREATOR, Direction.OUTGOING);
-
-                            if (LdbcUtils.getId(parentMessageAuthor) == friendId) {
-                                if (LdbcUtils.isMessagePost(parentMessage))
-                                    weight += 1.0;
-                                else
-                                    weight += 0.5;
-                            }
-                        }
-
-                        // Then look at the relationship friend -> previous friend.
-                        // Scan the current friend's messages.
-                        for (Relationship edgeFromMessage :  friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                            Node message= edgeFromMessage.getStartNode();
-
-                            // Skip posts.
-                            if (LdbcUtils.isMessagePost(message))
-                                continue;
-
-                            // Get the message being replied to.
-                            Node parentMessage = LdbcUtils.findNeighbor(db, message, LdbcUtils.EdgeType.REPLY_OF, Direction.OUTGOING);
-                            // And its author.
-                            Node parentMessageAuthor = LdbcUtils.findNeighbor(db, parentMessage, LdbcUtils.EdgeType.HAS_CREATOR, Direction.OUTGOING);
-
-                            if (LdbcUtils.getId(parentMessageAuthor) == prevFriendId) {
-                                if (LdbcUtils.isMessagePost(parentMessage))
-                                    weight += 1.0;
-                                else
-                                    weight += 0.5;
-                            }
-                        }
+                    if (i > 0)
+                        weight += scores.weight(path[i - 1], path[i]);
+
+                    long friendId = ids.get(path[i]);
+                    if (friendId == -1) {
+                        friendId = LdbcUtils.getId(db.getNodeById(path[i]));
+                        ids.put(path[i], friendId);
                     }
                     idsInPath.add(friendId);
-                    prevFriend = friend;
-                    prevFriendId = friendId;
                 }
                 LdbcQuery14Result r = new LdbcQuery14Result(idsInPath, weight);
                 result.add(r);
@@ -1,26 +1,24 @@
 /**
  * Complex read query 2.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.PriorityQueue;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.Direction;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery2Result;
 
 import ldbc.db.LdbcUtils;
+import ldbc.db.RecentMessages;
 import ldbc.helpers.Query2SortResult;
+import ldbc.helpers.TopK;
 
 public class Query2 {
 
@@ -38,51 +36,42 @@ public class Query2 {
                                                int limit) {
         List<LdbcQuery2Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.  Also we delay gathering the full set of data
-        // until we know a given entry is a keeper.
-        Queue<Query2SortResult> queue = new PriorityQueue<>(limit + 1);
+        // Keep the 'limit' newest messages, ties broken by message
+        // ID.  We delay gathering the full set of data until we know
+        // a given entry is a keeper.
+        TopK<Query2SortResult> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
 
-            // Iterate over the person's friends.
-            for (Relationship edgeToFriend : person.getRelationships(Direction.BOTH, LdbcUtils.EdgeType.KNOWS)) {
-                Node friend = edgeToFriend.getOtherNode(person);
-
-                // Iterate over the friend's messages skipping those
-                // older than date and add to the results.
-                for (Relationship edgeFromMessage : friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                    Node message = edgeFromMessage.getStartNode();
-
-                    long creationDate = LdbcUtils.getCreationDate(message);
-                    if (creationDate <= date) {
-                        // Create a new temporary result entry.
-                        Query2SortResult r = new Query2SortResult(
-                            friend,
-                            message,
-                            LdbcUtils.getId(message),
-                            creationDate);
-
-                        // Add the entry to the queue.
-                        queue.add(r);
-
-                        // Eliminate the 'highest' priority entry if we have
-                        // reached the target number of results.
-                        Query2SortResult rr;
-                        if (queue.size() > limit)
-                            rr = queue.poll();
-                    }
-                }
+            // Get the newest messages of the person's friends created
+            // on or before date.  Ties at the cut-off date come along
+            // so the selection can break them by message ID.
+            long[] friends = LdbcUtils.findCircleOfFriends(db, person, 1).nodeIds();
+            RecentMessages messages = LdbcUtils.findRecentMessages(db, friends, date, limit);
+            for (int i = 0; i < messages.size(); i++) {
+                // The messages come newest first, so once one is
+                // older than every message kept, so are the rest.
+                long creationDate = messages.creationDate(i);
+                if (!top.admits(creationDate))
+                    break;
+
+                // Add a new temporary result entry unless it cannot
+                // make the cut.
+                Node message = db.getNodeById(messages.messageNodeId(i));
+                long messageId = LdbcUtils.getId(message);
+                if (top.admits(creationDate, messageId))
+                    top.add(creationDate, messageId,
+                            new Query2SortResult(db.getNodeById(messages.creatorNodeId(i)),
+                                   message, messageId, creationDate));
             }
 
-            // Copy the results by adding elements at the beginning of
-            // the final list filling the additional fields as we go.
-            while (queue.size() != 0) {
-                Query2SortResult r = queue.poll();
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                Query2SortResult r = top.get(i);
                 Node friend = r.friend();
                 Node message = r.message();
                 LdbcQuery2Result s = new LdbcQuery2Result(
@@ -92,7 +81,7 @@ public class Query2 {
                     r.messageId(),
                     LdbcUtils.getContent(message),
                     r.messageCreationDate());
-                result.add(0, s);
+                result.add(s);
             }
         }
         return result;
@@ -1,27 +1,25 @@
 /**
  * Complex read query 3.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.PriorityQueue;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.traversal.TraversalDescription;
-import org.neo4j.graphdb.traversal.Evaluators;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery3Result;
 
+import ldbc.db.CircleOfFriends;
+import ldbc.db.FanOut;
 import ldbc.db.LdbcUtils;
 import ldbc.helpers.Query3SortResult;
+import ldbc.helpers.TopK;
 
 public class Query3 {
 
@@ -36,83 +34,77 @@ public class Query3 {
      * @param limit       An upper bound on the size of results returned
      * @return friends that have been to both countries at a certain time
      */
-    public static List<LdbcQuery3Result> query(GraphDatabaseService db,
+    public static List<LdbcQuery3Result> query(final GraphDatabaseService db,
                                                long personId,
                                                String xCountry,
                                                String yCountry,
-                                               long startDate, int duration,
-                                               int limit) {
+                                               final long startDate, int duration,
+                                               final int limit) {
         List<LdbcQuery3Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.  Also we delay gathering the full set of data
-        // until we know a given entry is a keeper.
-        Queue<Query3SortResult> queue = new PriorityQueue<>(limit + 1);
-
-        // Create a traversal description for the person's friends
-        // and friends of friends.
-        TraversalDescription knowsTraversal = db.traversalDescription()
-            .breadthFirst()
-            .relationships(LdbcUtils.EdgeType.KNOWS)
-            .evaluator(Evaluators.toDepth(2))
-            .evaluator(Evaluators.excludeStartPosition());
+        // Keep the 'limit' friends with the most messages in either
+        // country, ties broken by ID.  Also we delay gathering the
+        // full set of data until we know a given entry is a keeper.
+        TopK<Query3SortResult> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
-            long endDate = startDate + (long)duration * 24 * 60 * 60 * 1000;
-
-            long xCountryId = LdbcUtils.getId(LdbcUtils.findCountryByName(db, xCountry));
-            long yCountryId = LdbcUtils.getId(LdbcUtils.findCountryByName(db, yCountry));
-
-            // Iterate over the person's friends and friends of friends.
-            for (Node friend : knowsTraversal.traverse(person).nodes()) {
-                long xCount = 0;
-                long yCount = 0;
-                long friendCountryId = LdbcUtils.getId(LdbcUtils.findCountryOfPerson(db, friend));
-
-                // Skip if friend is a national of either xCountry or yCountry.
-                if (friendCountryId == xCountryId || friendCountryId == yCountryId)
-                    continue;
-
-                // Iterate over the friend's messages skipping those
-                // outside the period and add to the results.
-                for (Relationship edgeFromMessage : friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                    Node message = edgeFromMessage.getStartNode();
-
-                    long creationDate = LdbcUtils.getCreationDate(message);
-                    if (startDate <= creationDate && creationDate < endDate) {
-                        long messageCountryId = LdbcUtils.getId(LdbcUtils.findCountryOfMessage(db, message));
-
-                        if (messageCountryId == xCountryId) xCount++;
-                        if (messageCountryId == yCountryId) yCount++;
+            final long endDate = startDate + (long)duration * 24 * 60 * 60 * 1000;
+
+            final long xCountryNodeId = LdbcUtils.findCountryByName(db, xCountry).getId();
+            final long yCountryNodeId = LdbcUtils.findCountryByName(db, yCountry).getId();
+
+            // Iterate over the person's friends and friends of
+            // friends, in slices if running in parallel, and merge
+            // the best friends of each slice.
+            final CircleOfFriends circle = LdbcUtils.findCircleOfFriends(db, person, 2);
+            List<TopK<Query3SortResult>> partials = FanOut.map(
+                db, circle.size(),
+                new FanOut.Task<TopK<Query3SortResult>>() {
+                    @Override
+                    public TopK<Query3SortResult> run(int start, int end) {
+                        TopK<Query3SortResult> partial = new TopK<>(
+                            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
+                        for (int i = start; i < end; i++) {
+                            Node friend = db.getNodeById(circle.nodeId(i));
+
+                            long xCount = 0;
+                            long yCount = 0;
+                            long friendCountryNodeId = LdbcUtils.findCountryIdOfPerson(db, friend);
+
+                            // Skip if friend is a national of either xCountry or yCountry.
+                            if (friendCountryNodeId == xCountryNodeId || friendCountryNodeId == yCountryNodeId)
+                                continue;
+
+                            // Iterate over the friend's messages within the
+                            // period and add to the results.
+                            for (long messageNodeId : LdbcUtils.findMessagesCreatedBetween(db, friend, startDate, endDate)) {
+                                long messageCountryNodeId = LdbcUtils.findCountryIdOfMessage(db, messageNodeId);
+
+                                if (messageCountryNodeId == xCountryNodeId) xCount++;
+                                if (messageCountryNodeId == yCountryNodeId) yCount++;
+                            }
+                            if (xCount + yCount != 0 && xCount != 0 && yCount != 0) {
+                                // Add a new temporary result entry unless it cannot
+                                // make the cut.
+                                long friendId = LdbcUtils.getId(friend);
+                                if (partial.admits(xCount + yCount, friendId))
+                                    partial.add(xCount + yCount, friendId,
+                                                new Query3SortResult(friend, friendId, xCount, yCount));
+                            }
+                        }
+                        return partial;
                     }
-                }
-                if (xCount + yCount != 0 && xCount != 0 && yCount != 0) {
-                    // Create a new temporary result entry.
-                    Query3SortResult r = new Query3SortResult(
-                        friend,
-                        LdbcUtils.getId(friend),
-                        xCount,
-                        yCount);
-
-                    // Add the entry to the queue.
-                    queue.add(r);
-
-                    // Eliminate the 'highest' priority entry if we have
-                    // reached the target number of results.
-                    Query3SortResult rr;
-                    if (queue.size() > limit)
-                        rr = queue.poll();
-                }
-            }
-
-            // Copy the results by adding elements at the beginning of
-            // the final list filling the additional fields as we go.
-            while (queue.size() != 0) {
-                Query3SortResult r = queue.poll();
+                });
+            for (TopK<Query3SortResult> partial : partials)
+                top.addAll(partial);
+
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                Query3SortResult r = top.get(i);
                 Node friend = r.friend();
                 LdbcQuery3Result s = new LdbcQuery3Result(
                     r.friendId(),
@@ -121,7 +113,7 @@ public class Query3 {
                     r.xCount(),
                     r.yCount(),
                     r.xCount() + r.yCount());
-                result.add(0, s);
+                result.add(s);
             }
         }
 
@@ -1,20 +1,13 @@
 /**
  * Complex read query 4.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.Queue;
-import java.util.PriorityQueue;
-
 import java.util.Comparator;
 
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -26,9 +19,27 @@ import org.neo4j.graphdb.Direction;
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery4Result;
 
 import ldbc.db.LdbcUtils;
+import ldbc.helpers.LongCounter;
+import ldbc.helpers.LongSet;
+import ldbc.helpers.TopK;
 
 public class Query4 {
 
+    // Each thread counts tags in its own counter and set, reused from
+    // one query to the next.
+    private static final ThreadLocal<LongCounter> tagCounts = new ThreadLocal<LongCounter>() {
+        @Override
+        protected LongCounter initialValue() {
+            return new LongCounter(1024);
+        }
+    };
+    private static final ThreadLocal<LongSet> excludedTags = new ThreadLocal<LongSet>() {
+        @Override
+        protected LongSet initialValue() {
+            return new LongSet(1024);
+        }
+    };
+
     /**
      * New topics (fourth complex read query).
      * @param db          A database handle
@@ -44,30 +55,25 @@ public class Query4 {
                                                int limit) {
         List<LdbcQuery4Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.
-        Queue<LdbcQuery4Result> queue = new PriorityQueue<>(
-            limit,
+        // Keep the 'limit' tags with the most posts, ties broken by
+        // tag name.  The post count is the primary key and the code
+        // of the tag's name, which orders names, the secondary key;
+        // without a name dictionary all codes are equal and the
+        // comparator orders the names themselves.
+        TopK<LdbcQuery4Result> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING,
             new Comparator<LdbcQuery4Result>() {
                 @Override
                 public int compare(LdbcQuery4Result r1, LdbcQuery4Result r2) {
-                    long c1 = r1.postCount();
-                    long c2 = r2.postCount();
-                    if (c1 == c2) {
-                        String t1 = r1.tagName();
-                        String t2 = r2.tagName();
-                        return t2.compareTo(t1);
-                    }
-                    else
-                        return Long.compare(c1, c2); // descending
+                    return r1.tagName().compareTo(r2.tagName());
                 }
             });
 
-        Map<Node, Integer> counts = new HashMap<Node, Integer>();
-        Set<Node> exclude = new HashSet<Node>();
+        // Post counts and excluded tags, keyed by tag node ID.
+        LongCounter counts = tagCounts.get();
+        LongSet exclude = excludedTags.get();
+        counts.clear();
+        exclude.clear();
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
@@ -93,50 +99,47 @@ public class Query4 {
 
                     // Iterate over the post's tags.
                     for (Relationship edgeToTag : message.getRelationships(LdbcUtils.EdgeType.HAS_TAG)) {
-                        Node tag = edgeToTag.getEndNode();
+                        long tagNodeId = edgeToTag.getEndNode().getId();
 
                         // If not already excluded ...
-                        if (!exclude.contains(tag)) {
+                        if (!exclude.contains(tagNodeId)) {
                             // ... exclude tags associated with older posts.
                             if (creationDate < startDate) {
-                                exclude.add(tag);
-                                counts.remove(tag);
+                                exclude.add(tagNodeId);
+                                counts.reset(tagNodeId);
                             }
                             // Otherwise update the tag's count.
-                            else {
-                                if (counts.get(tag) == null)
-                                    counts.put(tag, 1);
-                                else
-                                    counts.put(tag, counts.get(tag) + 1);
-                            }
+                            else
+                                counts.add(tagNodeId, 1);
                         }
                     }
                 }
             }
 
             // Collect the results.
-            for (Node tag : counts.keySet()) {
-                // Create a new entry.
-                LdbcQuery4Result r = new LdbcQuery4Result(
-                    LdbcUtils.getName(tag),
-                    counts.get(tag));
-
-                // Add the entry to the queue.
-                queue.add(r);
-
-                // Eliminate the 'highest' priority entry if we have
-                // reached the target number of results.
-                LdbcQuery4Result rr;
-                if (queue.size() > limit)
-                    rr = queue.poll();
+            for (int slot = 0; slot < counts.size(); slot++) {
+                // Skip excluded tags.
+                int count = counts.count(slot);
+                if (count == 0)
+                    continue;
+
+                // Add a new entry unless it cannot make the cut.
+                if (!top.admits(count))
+                    continue;
+                Node tag = db.getNodeById(counts.key(slot));
+                int nameCode = LdbcUtils.getNameCode(tag);
+                if (top.admits(count, nameCode))
+                    top.add(count, nameCode, new LdbcQuery4Result(
+                        LdbcUtils.getName(tag),
+                        count));
             }
 
         }
 
-        // Copy the results by adding elements at the
-        // beginning of the list.
-        while (queue.size() != 0)
-            result.add(0, queue.poll());
+        // Copy the results best first.
+        top.sort();
+        for (int i = 0; i < top.size(); i++)
+            result.add(top.get(i));
 
         return result;
     }
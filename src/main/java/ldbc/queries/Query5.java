@@ -1,35 +1,51 @@
 /**
  * Complex read query 5.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.Queue;
-import java.util.PriorityQueue;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.traversal.TraversalDescription;
-import org.neo4j.graphdb.traversal.Evaluator;
-import org.neo4j.graphdb.traversal.Evaluators;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery5Result;
 
+import ldbc.db.CircleOfFriends;
+import ldbc.db.FanOut;
 import ldbc.db.LdbcUtils;
+import ldbc.helpers.LongCounter;
+import ldbc.helpers.LongSet;
 import ldbc.helpers.Query5SortResult;
+import ldbc.helpers.TopK;
 
 public class Query5 {
 
+    // Each thread counts in its own counter, reused from one query to
+    // the next.  A lone slice counts straight into it; several slices
+    // count in counters of their own, since a worker may run several
+    // slices of one query, and are added up in it.
+    private static final ThreadLocal<LongCounter> forumCounts = new ThreadLocal<LongCounter>() {
+        @Override
+        protected LongCounter initialValue() {
+            return new LongCounter(1024);
+        }
+    };
+
+    // Each thread collects the forums a friend joined in its own set,
+    // cleared for every friend.
+    private static final ThreadLocal<LongSet> joinedForums = new ThreadLocal<LongSet>() {
+        @Override
+        protected LongSet initialValue() {
+            return new LongSet(16);
+        }
+    };
+
     /**
      * New groups (fifth complex read query).
      * @param db        A database handle
@@ -38,99 +54,90 @@ public class Query5 {
      * @param limit     An upper bound on the size of results returned
      * @return topics first created in the range provided
      */
-    public static List<LdbcQuery5Result> query(GraphDatabaseService db,
-                                               long personId, long date,
+    public static List<LdbcQuery5Result> query(final GraphDatabaseService db,
+                                               long personId, final long date,
                                                int limit) {
         List<LdbcQuery5Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.
-        Queue<Query5SortResult> queue = new PriorityQueue<>(limit + 1);
-
-        // A hash mapping a friend to a set of forum.
-        Map<Node, Set<Node>> forumsOfFriends = new HashMap<Node, Set<Node>>();
-
-        // Maintain a number of posts per forum.
-        Map<Node, Integer> counts = new HashMap<Node, Integer>();
-
-        // In a multithreaded environment successive use of the same
-        // Neo4j traversal description may yield different results.
-        // So we remember our friends in a private hash instead.
-        Set<Node> friends = new HashSet<Node>();
+        // Keep the 'limit' forums with the most posts, ties broken by
+        // ID.  Also we delay gathering the full set of data until we
+        // know a given entry is a keeper.
+        TopK<Query5SortResult> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
-        // Create a traversal description for the person's friends
-        // and friends of friends.
-        TraversalDescription knowsTraversal = db.traversalDescription()
-            .breadthFirst()
-            .relationships(LdbcUtils.EdgeType.KNOWS)
-            .evaluator(Evaluators.toDepth(2))
-            .evaluator(Evaluators.excludeStartPosition());
+        // Post counts keyed by forum node ID.
+        final LongCounter counts = forumCounts.get();
+        counts.clear();
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
 
-            // Iterate over the person's friends and friends of friends.
-            for (Node friend : knowsTraversal.traverse(person).nodes()) {
-
-                friends.add(friend);
-
-                // Iterate over the friend's forums.
-                Set<Node> forums = new HashSet<Node>();
-                for (Relationship edgeFromForum : friend.getRelationships(LdbcUtils.EdgeType.HAS_MEMBER)) {
-                    if ((long)edgeFromForum.getProperty(LdbcUtils.Keys.JOINDATE) <= date)
-                        continue;
-                    Node forum = edgeFromForum.getStartNode();
-                    forums.add(forum);
-                    counts.put(forum, 0);
-                }
-                forumsOfFriends.put(friend, forums);
-            }
-
-            // Iterate over these friends again.
-            for (Node friend : friends) {
-
-                // And iterate over the friend's posts.
-                for (Relationship edgeFromMessage : friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                    Node message = edgeFromMessage.getStartNode();
-
-                    if (!LdbcUtils.isMessagePost(message))
-                        continue;
-
-                    Node forum = LdbcUtils.findForumOfPost(db, message);
-                    if (forumsOfFriends.get(friend).contains(forum))
-                        counts.put(forum, counts.get(forum) + 1);
-                }
-            }
+            // Iterate over the person's friends and friends of
+            // friends, in slices if running in parallel, and add up
+            // the counts of each slice.
+            final CircleOfFriends circle = LdbcUtils.findCircleOfFriends(db, person, 2);
+            final boolean sliced = FanOut.slices(db, circle.size()) > 1;
+            List<LongCounter> partials = FanOut.map(
+                db, circle.size(),
+                new FanOut.Task<LongCounter>() {
+                    @Override
+                    public LongCounter run(int start, int end) {
+                        LongCounter sliceCounts = sliced ? new LongCounter(256) : counts;
+                        LongSet joined = joinedForums.get();
+
+                        for (int i = start; i < end; i++) {
+                            Node friend = db.getNodeById(circle.nodeId(i));
+
+                            // Collect the forums the friend joined
+                            // after the date; they count even without
+                            // posts.  A friend who joined none has no
+                            // posts to count.
+                            long[] forums = LdbcUtils.findForumsJoinedAfter(db, friend, date);
+                            if (forums.length == 0)
+                                continue;
+                            joined.clear();
+                            for (long forumNodeId : forums) {
+                                joined.add(forumNodeId);
+                                sliceCounts.add(forumNodeId, 0);
+                            }
+
+                            // Count the friend's posts in these forums.
+                            for (Relationship edgeFromMessage : friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
+                                long forumNodeId = LdbcUtils.findForumIdOfMessage(db, edgeFromMessage.getStartNode());
+                                if (forumNodeId != -1 && joined.contains(forumNodeId))
+                                    sliceCounts.add(forumNodeId, 1);
+                            }
+                        }
+                        return sliceCounts;
+                    }
+                });
+            if (sliced)
+                for (LongCounter partial : partials)
+                    counts.addAll(partial);
 
             // Collect the results.
-            for (Map.Entry<Node, Integer> e : counts.entrySet()) {
-                // Create a new temporary result entry.
-                Query5SortResult r = new Query5SortResult(
-                    e.getKey(),
-                    LdbcUtils.getId(e.getKey()),
-                    e.getValue());
-
-                // Add the entry to the queue.
-                queue.add(r);
-
-                // Eliminate the 'highest' priority entry if we have
-                // reached the target number of results.
-                Query5SortResult rr;
-                if (queue.size() > limit)
-                    rr = queue.poll();
+            for (int slot = 0; slot < counts.size(); slot++) {
+                // Add a new temporary result entry unless it cannot
+                // make the cut.
+                int postCount = counts.count(slot);
+                if (!top.admits(postCount))
+                    continue;
+                Node forum = db.getNodeById(counts.key(slot));
+                long forumId = LdbcUtils.getId(forum);
+                if (top.admits(postCount, forumId))
+                    top.add(postCount, forumId,
+                            new Query5SortResult(forum, forumId, postCount));
             }
 
-            // Copy the results by adding elements at the
-            // beginning of the list.
-            while (queue.size() != 0) {
-                Query5SortResult r = queue.poll();
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                Query5SortResult r = top.get(i);
                 LdbcQuery5Result s = new LdbcQuery5Result(
                     LdbcUtils.getTitle(r.forum()),
                     r.postCount());
-                result.add(0, s);
+                result.add(s);
             }
         }
         return result;
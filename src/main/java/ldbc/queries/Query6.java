@@ -1,33 +1,41 @@
 /**
  * Complex read query 6.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Queue;
-import java.util.PriorityQueue;
-
 import java.util.Comparator;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.traversal.TraversalDescription;
-import org.neo4j.graphdb.traversal.Evaluators;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery6Result;
 
+import ldbc.db.CircleOfFriends;
+import ldbc.db.FanOut;
 import ldbc.db.LdbcUtils;
+import ldbc.helpers.LongCounter;
+import ldbc.helpers.TopK;
 
 public class Query6 {
 
+    // Each thread counts in its own counter, reused from one query to
+    // the next.  A lone slice counts straight into it; several slices
+    // count in counters of their own, since a worker may run several
+    // slices of one query, and are added up in it.
+    private static final ThreadLocal<LongCounter> tagCounts = new ThreadLocal<LongCounter>() {
+        @Override
+        protected LongCounter initialValue() {
+            return new LongCounter(1024);
+        }
+    };
+
     /**
      * Tag co-occurrence (sixth complex read query).
      * @param db        A database handle
@@ -36,100 +44,96 @@ public class Query6 {
      * @param limit     An upper bound on the size of results returned
      * @return other tags that occur together with given tag
      */
-    public static List<LdbcQuery6Result> query(GraphDatabaseService db,
+    public static List<LdbcQuery6Result> query(final GraphDatabaseService db,
                                                long personId, String tagName,
                                                int limit) {
         List<LdbcQuery6Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.
-        Queue<LdbcQuery6Result> queue = new PriorityQueue<>(
-            limit,
+        // Keep the 'limit' tags with the most posts, ties broken by
+        // tag name.  The post count is the primary key and the code
+        // of the tag's name, which orders names, the secondary key;
+        // without a name dictionary all codes are equal and the
+        // comparator orders the names themselves.
+        TopK<LdbcQuery6Result> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING,
             new Comparator<LdbcQuery6Result>() {
                 @Override
                 public int compare(LdbcQuery6Result r1, LdbcQuery6Result r2) {
-                    int c1 = r1.postCount();
-                    int c2 = r2.postCount();
-                    if (c1 == c2) {
-                        String name1 = r1.tagName();
-                        String name2 = r2.tagName();
-                        return name2.compareTo(name1);
-                    }
-                    else
-                        return Integer.compare(c1, c2); // descending
+                    return r1.tagName().compareTo(r2.tagName());
                 }
             });
 
-        // A hash mapping a post to its associated count.
-        Map<Node, Integer> counts = new HashMap<Node, Integer>();
-
-        // Create a traversal description for the person's friends
-        // and friends of friends.
-        TraversalDescription knowsTraversal = db.traversalDescription()
-            .breadthFirst()
-            .relationships(LdbcUtils.EdgeType.KNOWS)
-            .evaluator(Evaluators.toDepth(2))
-            .evaluator(Evaluators.excludeStartPosition());
+        // Post counts keyed by tag node ID.
+        final LongCounter counts = tagCounts.get();
+        counts.clear();
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
-            Node tag = LdbcUtils.findTagByName(db, tagName);
-
-            // Iterate over the person's friends and friends of friends.
-            for (Node friend : knowsTraversal.traverse(person).nodes()) {
-
-                // Iterate over the friend's messages.
-                for (Relationship edgeFromMessage: friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                    Node message = edgeFromMessage.getStartNode();
-
-                    // Skip comments.
-                    if (!LdbcUtils.isMessagePost(message))
-                        continue;
-
-                    // Skip post that doesn't contain tag.
-                    if (!LdbcUtils.hasMessageTag(db, message, tag))
-                        continue;
-
-                    // Iterate over the post's tags.
-                    for (Relationship edgeToTag : message.getRelationships(LdbcUtils.EdgeType.HAS_TAG)) {
-                        Node otherTag = edgeToTag.getEndNode();
-
-                        // Skip the input tag.
-                        if (LdbcUtils.getId(tag) == LdbcUtils.getId(otherTag))
-                            continue;
-
-                        // Update the count.
-                        if (counts.get(otherTag) == null)
-                            counts.put(otherTag, 1);
-                        else
-                            counts.put(otherTag, counts.get(otherTag) + 1);
+            final Node tag = LdbcUtils.findTagByName(db, tagName);
+
+            // Iterate over the person's friends and friends of
+            // friends, in slices if running in parallel, and add up
+            // the counts of each slice.
+            final CircleOfFriends circle = LdbcUtils.findCircleOfFriends(db, person, 2);
+            final boolean sliced = FanOut.slices(db, circle.size()) > 1;
+            List<LongCounter> partials = FanOut.map(
+                db, circle.size(),
+                new FanOut.Task<LongCounter>() {
+                    @Override
+                    public LongCounter run(int start, int end) {
+                        LongCounter sliceCounts = sliced ? new LongCounter(256) : counts;
+                        for (int i = start; i < end; i++) {
+                            Node friend = db.getNodeById(circle.nodeId(i));
+
+                            // Iterate over the friend's messages.
+                            for (Relationship edgeFromMessage: friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
+                                Node message = edgeFromMessage.getStartNode();
+
+                                // Skip comments.
+                                if (!LdbcUtils.isMessagePost(message))
+                                    continue;
+
+                                // Skip post that doesn't contain tag.
+                                if (!LdbcUtils.hasMessageTag(db, message, tag))
+                                    continue;
+
+                                // Iterate over the post's tags.
+                                for (Relationship edgeToTag : message.getRelationships(LdbcUtils.EdgeType.HAS_TAG)) {
+                                    long otherTagNodeId = edgeToTag.getEndNode().getId();
+
+                                    // Skip the input tag.
+                                    if (otherTagNodeId == tag.getId())
+                                        continue;
+
+                                    // Update the count.
+                                    sliceCounts.add(otherTagNodeId, 1);
+                                }
+                            }
+                        }
+                        return sliceCounts;
                     }
-                }
-            }
+                });
+            if (sliced)
+                for (LongCounter partial : partials)
+                    counts.addAll(partial);
 
             // Collect the results.
-            for (Map.Entry<Node, Integer> e : counts.entrySet()) {
-                // Create a new entry.
-                LdbcQuery6Result r = new LdbcQuery6Result(LdbcUtils.getName(e.getKey()), e.getValue());
-
-                // Add the entry to the queue.
-                queue.add(r);
-
-                // Eliminate the 'highest' priority entry if we have
-                // reached the target number of results.
-                LdbcQuery6Result rr;
-                if (queue.size() > limit)
-                    rr = queue.poll();
+            for (int slot = 0; slot < counts.size(); slot++) {
+                // Add a new entry unless it cannot make the cut.
+                int count = counts.count(slot);
+                if (!top.admits(count))
+                    continue;
+                Node otherTag = db.getNodeById(counts.key(slot));
+                int nameCode = LdbcUtils.getNameCode(otherTag);
+                if (top.admits(count, nameCode))
+                    top.add(count, nameCode, new LdbcQuery6Result(LdbcUtils.getName(otherTag), count));
             }
         }
 
-        // Copy the results by adding elements at the
-        // beginning of the list.
-        while (queue.size() != 0)
-            result.add(0, queue.poll());
+        // Copy the results best first.
+        top.sort();
+        for (int i = 0; i < top.size(); i++)
+            result.add(top.get(i));
 
         return result;
     }
@@ -1,27 +1,24 @@
 /**
  * Complex read query 7.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.Queue;
-import java.util.PriorityQueue;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Relationship;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery7Result;
 
 import ldbc.db.LdbcUtils;
+import ldbc.db.LikesReceived;
 import ldbc.helpers.Query7SortResult;
+import ldbc.helpers.TopK;
 
 public class Query7 {
 
@@ -36,84 +33,43 @@ public class Query7 {
                                                long personId, int limit) {
         List<LdbcQuery7Result> result = new ArrayList<>();
 
-        // A hash mapping a liker to the most recent liked relationship.
-        Map<Node, Relationship> recentLikes = new HashMap<>();
+        // Keep the 'limit' most recent likes, ties broken by liker
+        // ID.  Also we delay gathering the full set of data until we
+        // know a given entry is a keeper.
+        TopK<Query7SortResult> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
 
-            // Iterate over the person's messages.
-            for (Relationship edgeFromMessage : person.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                Node newMessage = edgeFromMessage.getStartNode();
-
-                long newMessageId = LdbcUtils.getId(newMessage);
-
-                // Iterate over the message's likers.
-                for (Relationship edgeFromNewLiker : newMessage.getRelationships(LdbcUtils.EdgeType.LIKES)) {
-                    Node newLiker = edgeFromNewLiker.getStartNode();
-
-                    // Have we seen this liker?
-                    if (recentLikes.containsKey(newLiker)) {
-                        // If so, we will update our map only if it is
-                        // a newer liker.  We break ties with message ID.
-                        long newLikesCreationDate = LdbcUtils.getCreationDate(edgeFromNewLiker);
-
-                        Relationship oldLikes = recentLikes.get(newLiker);
-                        long oldLikesCreationDate = LdbcUtils.getCreationDate(oldLikes);
-                        Node oldMessage = oldLikes.getEndNode();
-                        long oldMessageId = LdbcUtils.getId(oldMessage);
-
-                        if (newLikesCreationDate > oldLikesCreationDate
-                            || newLikesCreationDate == oldLikesCreationDate
-                            && newMessageId < oldMessageId)
-                            recentLikes.put(newLiker, edgeFromNewLiker);
-                    }
-                    else
-                        // If not, simply add to our map.
-                        recentLikes.put(newLiker, edgeFromNewLiker);
+            // Iterate over the most recent like of each of the most
+            // recent likers, newest first.
+            LikesReceived likes = LdbcUtils.findRecentLikes(db, person, limit);
+            for (int i = 0; i < likes.size(); i++) {
+                long likesCreationDate = likes.creationDate(i);
+                Node liker = db.getNodeById(likes.likerNodeId(i));
+
+                // Add a new temporary result entry unless it cannot
+                // make the cut.
+                long likerId = LdbcUtils.getId(liker);
+                if (top.admits(likesCreationDate, likerId)) {
+                    Node message = LdbcUtils.findMessageById(db, likes.messageId(i));
+                    long messageCreationDate = LdbcUtils.getCreationDate(message);
+                    int latency = (int)((likesCreationDate - messageCreationDate)/60000);
+                    top.add(likesCreationDate, likerId, new Query7SortResult(
+                        liker,
+                        message,
+                        likerId,
+                        likesCreationDate,
+                        latency));
                 }
             }
 
-            // Create a priority queue to keep the results sorted and
-            // limited to at most 'limit' entries.  To make this work,
-            // we inverse the sort order so we know it is safe to
-            // remove the entry with highest priority when the queue
-            // reaches 'limit + 1' elements.  Also we delay gathering
-            // the full set of data until we know a given entry is a
-            // keeper.
-            Queue<Query7SortResult> queue = new PriorityQueue<>(limit + 1);
-
-            // Collect the results.
-            for (Map.Entry<Node, Relationship> e : recentLikes.entrySet()) {
-                Node liker = e.getKey();
-                Relationship edgeFromLiker = e.getValue();
-                Node message = edgeFromLiker.getEndNode();
-                long likesCreationDate = LdbcUtils.getCreationDate(edgeFromLiker);
-                long messageCreationDate = LdbcUtils.getCreationDate(message);
-                int latency = (int)((likesCreationDate - messageCreationDate)/60000);
-
-                // Create a new temporary result entry.
-                Query7SortResult r = new Query7SortResult(
-                    liker,
-                    message,
-                    LdbcUtils.getId(liker),
-                    likesCreationDate,
-                    latency);
-
-                // Add the entry to the queue.
-                queue.add(r);
-
-                // Eliminate the 'highest' priority entry if we have
-                // reached the target number of results.
-                Query7SortResult rr;
-                if (queue.size() > limit)
-                    rr = queue.poll();
-            }
-
-            // Copy the results by adding elements at the beginning of
-            // the final list filling the additional fields as we go.
-            while (queue.size() != 0) {
-                Query7SortResult r = queue.poll();
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                Query7SortResult r = top.get(i);
                 Node liker = r.liker();
                 Node message = r.message();
                 LdbcQuery7Result s = new LdbcQuery7Result(
@@ -125,7 +81,7 @@ public class Query7 {
                     LdbcUtils.getContent(message),
                     r.latency(),
                     !LdbcUtils.areTheyFriend(db, person, liker));
-                result.add(0, s);
+                result.add(s);
             }
         }
         return result;
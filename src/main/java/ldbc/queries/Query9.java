@@ -1,27 +1,26 @@
 /**
  * Complex read query 9.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Relationship;
-import org.neo4j.graphdb.traversal.TraversalDescription;
-import org.neo4j.graphdb.traversal.Evaluators;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcQuery9Result;
 
+import ldbc.db.FanOut;
 import ldbc.db.LdbcUtils;
+import ldbc.db.RecentMessages;
 import ldbc.helpers.Query9SortResult;
+import ldbc.helpers.TopK;
 
 public class Query9 {
 
@@ -33,64 +32,61 @@ public class Query9 {
      * @param limit     An upper bound on the size of results returned
      * @return Recent posts by friends
      */
-    public static List<LdbcQuery9Result> query(GraphDatabaseService db,
-                                               long personId, long date,
-                                               int limit) {
+    public static List<LdbcQuery9Result> query(final GraphDatabaseService db,
+                                               long personId, final long date,
+                                               final int limit) {
         List<LdbcQuery9Result> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.  Also we delay gathering the full set of data
-        // until we know a given entry is a keeper.
-        Queue<Query9SortResult> queue = new PriorityQueue<>(limit + 1);
-
-        // Create a traversal description for the person's friends
-        // and friends of friends.
-        TraversalDescription knowsTraversal = db.traversalDescription()
-            .breadthFirst()
-            .relationships(LdbcUtils.EdgeType.KNOWS)
-            .evaluator(Evaluators.toDepth(2))
-            .evaluator(Evaluators.excludeStartPosition());
+        // Keep the 'limit' newest messages, ties broken by message
+        // ID.  We delay gathering the full set of data until we know
+        // a given entry is a keeper.
+        TopK<Query9SortResult> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
 
-            // Iterate over the person's friends and friends of friends.
-            for (Node friend : knowsTraversal.traverse(person).nodes()) {
-
-                // Iterate over the friend's messages.
-                for (Relationship edgeFromMessage : friend.getRelationships(LdbcUtils.EdgeType.HAS_CREATOR)) {
-                    Node message = edgeFromMessage.getStartNode();
-
-                    // Skip messages created on or after date.
-                    long messageCreationDate = LdbcUtils.getCreationDate(message);
-                    if (messageCreationDate >= date)
-                        continue;
-
-                    // Create a new temporary result entry.
-                    Query9SortResult r = new Query9SortResult(
-                        friend,
-                        message,
-                        LdbcUtils.getId(message),
-                        messageCreationDate);
-
-                    // Add the entry to the queue.
-                    queue.add(r);
-
-                    // Eliminate the 'highest' priority entry if we have
-                    // reached the target number of results.
-                    Query9SortResult rr;
-                    if (queue.size() > limit)
-                        rr = queue.poll();
+            // Get the newest messages of the person's friends and
+            // friends of friends created before date.  Ties at the
+            // cut-off date come along so the selection can break them
+            // by message ID.
+            // In parallel, each slice of the friends yields its own
+            // newest messages; the newest overall are among them.
+            final long[] friends = LdbcUtils.findCircleOfFriends(db, person, 2).nodeIds();
+            List<RecentMessages> partials = FanOut.map(
+                db, friends.length,
+                new FanOut.Task<RecentMessages>() {
+                    @Override
+                    public RecentMessages run(int start, int end) {
+                        long[] slice = start == 0 && end == friends.length
+                            ? friends : Arrays.copyOfRange(friends, start, end);
+                        return LdbcUtils.findRecentMessages(db, slice, date - 1, limit);
+                    }
+                });
+            for (RecentMessages messages : partials) {
+                for (int i = 0; i < messages.size(); i++) {
+                    // The messages come newest first, so once one is
+                    // older than every message kept, so are the rest.
+                    long creationDate = messages.creationDate(i);
+                    if (!top.admits(creationDate))
+                        break;
+
+                    // Add a new temporary result entry unless it cannot
+                    // make the cut.
+                    Node message = db.getNodeById(messages.messageNodeId(i));
+                    long messageId = LdbcUtils.getId(message);
+                    if (top.admits(creationDate, messageId))
+                        top.add(creationDate, messageId,
+                                new Query9SortResult(db.getNodeById(messages.creatorNodeId(i)),
+                                                     message, messageId, creationDate));
                 }
             }
 
-            // Copy the results by adding elements at the beginning of
-            // the final list filling the additional fields as we go.
-            while (queue.size() != 0) {
-                Query9SortResult r = queue.poll();
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                Query9SortResult r = top.get(i);
                 Node friend = r.friend();
                 Node message = r.message();
                 LdbcQuery9Result s = new LdbcQuery9Result(
@@ -100,7 +96,7 @@ public class Query9 {
                     r.messageId(),
                     LdbcUtils.getContent(message),
                     r.messageCreationDate());
-                result.add(0, s);
+                result.add(s);
             }
 
         }
@@ -1,7 +1,7 @@
 /**
  * Short read query 1.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -44,11 +44,11 @@ public class ShortQuery1 {
                 LdbcUtils.getFirstName(person),
                 LdbcUtils.getLastName(person),
                 LdbcUtils.getBirthday(person),
-                LdbcUtils.getLocationIp(person),
-                LdbcUtils.getBrowserUsed(person),
+                LdbcUtils.getPersonLocationIp(person),
+                LdbcUtils.getPersonBrowserUsed(person),
                 LdbcUtils.getId(place),
                 LdbcUtils.getGender(person),
-                LdbcUtils.getCreationDate(person));
+                LdbcUtils.getPersonCreationDate(person));
         }
 
         return result;
@@ -1,27 +1,25 @@
 /**
  * Short read query 2.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.PriorityQueue;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.Node;
-import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Direction;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery2PersonPostsResult;
 
-import ldbc.db.DbUtils;
 import ldbc.db.LdbcUtils;
+import ldbc.db.RecentMessages;
 import ldbc.helpers.ShortQuery2SortResult;
+import ldbc.helpers.TopK;
 
 public class ShortQuery2 {
 
@@ -37,52 +35,48 @@ public class ShortQuery2 {
                                                                int limit) {
         List<LdbcShortQuery2PersonPostsResult> result = new ArrayList<>();
 
-        // Create a priority queue to keep the results sorted and
-        // limited to at most 'limit' entries.  To make this work, we
-        // inverse the sort order so we know it is safe to remove the
-        // entry with highest priority when the queue reaches 'limit +
-        // 1' elements.  Also we delay gathering the full set of data
-        // until we know a given entry is a keeper.
-        Queue<ShortQuery2SortResult> queue = new PriorityQueue<>(limit + 1);
+        // Keep the 'limit' newest messages, ties broken by message
+        // ID (highest first).  Also we delay gathering the full set
+        // of data until we know a given entry is a keeper.
+        TopK<ShortQuery2SortResult> top = new TopK<>(
+            limit, TopK.Order.DESCENDING, TopK.Order.DESCENDING);
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
 
             if (person == null) return result;
 
-            // Iterate over the person's messages.
-            for (Relationship edgeToPerson : person.getRelationships(Direction.INCOMING, LdbcUtils.EdgeType.HAS_CREATOR)) {
-                Node message = edgeToPerson.getStartNode();
-
-                // Create a new temporary result entry.
-                ShortQuery2SortResult r = new ShortQuery2SortResult(
-                    message,
-                    LdbcUtils.getId(message),
-                    LdbcUtils.getCreationDate(message));
-
-                // Add the entry to the queue.
-                queue.add(r);
-
-                // Eliminate the 'highest' priority entry if we have
-                // reached the target number of results.
-                ShortQuery2SortResult rr;
-                if (queue.size() > limit)
-                    rr = queue.poll();
+            // Iterate over the person's newest messages.  Ties at the
+            // cut-off date come along so the selection can break them by
+            // message ID.
+            RecentMessages messages = LdbcUtils.findRecentMessages(
+                db, new long[] { person.getId() }, Long.MAX_VALUE, limit);
+            for (int i = 0; i < messages.size(); i++) {
+                // The messages come newest first, so once one is
+                // older than every message kept, so are the rest.
+                long creationDate = messages.creationDate(i);
+                if (!top.admits(creationDate))
+                    break;
+
+                // Add a new temporary result entry unless it cannot
+                // make the cut.
+                Node message = db.getNodeById(messages.messageNodeId(i));
+                long messageId = LdbcUtils.getId(message);
+                if (top.admits(creationDate, messageId))
+                    top.add(creationDate, messageId,
+                            new ShortQuery2SortResult(message, messageId, creationDate));
             }
 
-            // Copy the results by adding elements at the beginning of
-            // the final list filling the additional fields as we go.
-            while (queue.size() != 0) {
-                ShortQuery2SortResult r = queue.poll();
+            // Copy the results best first filling the additional fields
+            // as we go.
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                ShortQuery2SortResult r = top.get(i);
                 Node message = r.message();
                 long messageId = r.messageId();
 
                 // Get the original post (the message may be it).
-                Node originalPost
-                    = DbUtils.findProgenitor(
-                        db, message,
-                        LdbcUtils.EdgeType.REPLY_OF,
-                        Direction.OUTGOING);
+                Node originalPost = LdbcUtils.findOriginalPost(db, message);
                 long originalPostId = LdbcUtils.getId(originalPost);
 
                 // Get the author of the original post.
@@ -113,7 +107,7 @@ public class ShortQuery2 {
                         LdbcUtils.getLastName(originalPostAuthor));
 
                 // Add it to the list.
-                result.add(0, s);
+                result.add(s);
             }
         }
 
@@ -1,15 +1,13 @@
 /**
  * Short read query 3.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.PriorityQueue;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
@@ -21,6 +19,7 @@ import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery3PersonFrien
 
 import ldbc.db.LdbcUtils;
 import ldbc.helpers.ShortQuery3SortResult;
+import ldbc.helpers.TopK;
 
 public class ShortQuery3 {
 
@@ -34,9 +33,11 @@ public class ShortQuery3 {
                                                                  long personId) {
         List<LdbcShortQuery3PersonFriendsResult> result = new ArrayList<>();
 
-        // Create a priority queue to sort the entries as we
-        // accumulate results.
-        Queue<ShortQuery3SortResult> queue = new PriorityQueue<>();
+        // Sort the entries as we accumulate results, newest
+        // friendship first, ties broken by friend ID.  There is no
+        // limit on the number of entries.
+        TopK<ShortQuery3SortResult> top = new TopK<>(
+            Integer.MAX_VALUE, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
         try (Transaction tx = db.beginTx()) {
             Node person = LdbcUtils.findPersonById(db, personId);
@@ -47,19 +48,17 @@ public class ShortQuery3 {
             for (Relationship edgeFromPerson : person.getRelationships(Direction.BOTH, LdbcUtils.EdgeType.KNOWS)) {
                 Node friend = edgeFromPerson.getOtherNode(person);
 
-                // Create a new temporary result entry.
-                ShortQuery3SortResult r = new ShortQuery3SortResult(
-                    friend,
-                    LdbcUtils.getId(friend),
-                    LdbcUtils.getCreationDate(edgeFromPerson));
-
-                // Add the entry to the queue.
-                queue.add(r);
+                // Add a new temporary result entry.
+                long friendId = LdbcUtils.getId(friend);
+                long friendshipCreationDate = LdbcUtils.getCreationDate(edgeFromPerson);
+                top.add(friendshipCreationDate, friendId,
+                        new ShortQuery3SortResult(friend, friendId, friendshipCreationDate));
             }
 
             // Copy the results to the permanent result structure.
-            while (queue.size() != 0) {
-                ShortQuery3SortResult r = queue.poll();
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                ShortQuery3SortResult r = top.get(i);
                 Node friend = r.friend();
                 LdbcShortQuery3PersonFriendsResult s
                     = new LdbcShortQuery3PersonFriendsResult(
@@ -1,7 +1,7 @@
 /**
  * Short read query 6.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -13,7 +13,6 @@ import org.neo4j.graphdb.Direction;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery6MessageForumResult;
 
-import ldbc.db.DbUtils;
 import ldbc.db.LdbcUtils;
 
 public class ShortQuery6 {
@@ -29,15 +28,9 @@ public class ShortQuery6 {
         LdbcShortQuery6MessageForumResult result = null;
 
         try (Transaction tx = db.beginTx()) {
-            Node message = LdbcUtils.findMessageById(db, messageId);
+            Node post = LdbcUtils.findOriginalPostOfMessage(db, messageId);
 
-            if (message == null) return null;
-
-            Node post = DbUtils.findProgenitor(
-                db,
-                message,
-                LdbcUtils.EdgeType.REPLY_OF,
-                Direction.OUTGOING);
+            if (post == null) return null;
 
             Node forum = LdbcUtils.findNeighbor(
                 db,
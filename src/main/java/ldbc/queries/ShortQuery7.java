@@ -1,15 +1,13 @@
 /**
  * Short read query 7.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -23,6 +21,7 @@ import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcShortQuery7MessageRepl
 
 import ldbc.db.LdbcUtils;
 import ldbc.helpers.ShortQuery7SortResult;
+import ldbc.helpers.TopK;
 
 public class ShortQuery7 {
 
@@ -36,9 +35,11 @@ public class ShortQuery7 {
                                                                   long messageId) {
         List<LdbcShortQuery7MessageRepliesResult> result = new ArrayList<>();
 
-        // Create a priority queue to sort the entries as we
-        // accumulate results.
-        Queue<ShortQuery7SortResult> queue = new PriorityQueue<>();
+        // Sort the entries as we accumulate results, newest reply
+        // first, ties broken by author ID.  There is no limit on the
+        // number of entries.
+        TopK<ShortQuery7SortResult> top = new TopK<>(
+            Integer.MAX_VALUE, TopK.Order.DESCENDING, TopK.Order.ASCENDING);
 
         try (Transaction tx = db.beginTx()) {
             Node message = LdbcUtils.findMessageById(db, messageId);
@@ -68,20 +69,20 @@ public class ShortQuery7 {
                     LdbcUtils.EdgeType.HAS_CREATOR,
                     Direction.OUTGOING);
 
-                // Create a new temporary result entry.
-                ShortQuery7SortResult r = new ShortQuery7SortResult(
+                // Add a new temporary result entry.
+                long commentCreationDate = LdbcUtils.getCreationDate(comment);
+                long commentAuthorId = LdbcUtils.getId(commentAuthor);
+                top.add(commentCreationDate, commentAuthorId, new ShortQuery7SortResult(
                     comment,
                     commentAuthor,
-                    LdbcUtils.getCreationDate(comment),
-                    LdbcUtils.getId(commentAuthor));
-
-                // Add the entry to the queue.
-                queue.add(r);
+                    commentCreationDate,
+                    commentAuthorId));
             }
 
             // Copy the results to the permanent result structure.
-            while (queue.size() != 0) {
-                ShortQuery7SortResult r = queue.poll();
+            top.sort();
+            for (int i = 0; i < top.size(); i++) {
+                ShortQuery7SortResult r = top.get(i);
                 Node comment = r.comment();
                 Node commentAuthor = r.commentAuthor();
                 LdbcShortQuery7MessageRepliesResult s = new LdbcShortQuery7MessageRepliesResult(
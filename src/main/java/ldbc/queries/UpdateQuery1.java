@@ -1,7 +1,7 @@
 /**
  * Update query 1.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -15,7 +15,12 @@ import org.neo4j.graphdb.Node;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcUpdate1AddPerson;
 
+import ldbc.db.Dictionaries;
+import ldbc.db.KnowsIndex;
 import ldbc.db.LdbcUtils;
+import ldbc.db.NodeIdIndex;
+import ldbc.db.PersonCache;
+import ldbc.db.PlaceIndex;
 
 public class UpdateQuery1 {
 
@@ -39,12 +44,14 @@ public class UpdateQuery1 {
         props.put(LdbcUtils.Keys.LANGUAGES, parameters.languages().toArray(new String[0]));
         props.put(LdbcUtils.Keys.EMAILS, parameters.emails().toArray(new String[0]));
 
+        Node person;
+        Node city;
         try (Transaction tx = db.beginTx()) {
             // Add the person and its in-node properties.
-            Node person = LdbcUtils.createPerson(db, props);
+            person = LdbcUtils.createPerson(db, props);
 
             // Add link to a place.
-            Node city = LdbcUtils.findCityById(db, parameters.cityId());
+            city = LdbcUtils.findCityById(db, parameters.cityId());
             LdbcUtils.createIsLocatedInEdge(person, city);
 
             // Add links to schools.
@@ -65,6 +72,23 @@ public class UpdateQuery1 {
 
             tx.success();
         }
+
+        // Now that the person is committed, tell the indexes.
+        NodeIdIndex nodeIdIndex = NodeIdIndex.of(db);
+        if (nodeIdIndex != null)
+            nodeIdIndex.add(LdbcUtils.NodeLabel.PERSON, parameters.personId(), person.getId());
+        Dictionaries dictionaries = Dictionaries.of(db);
+        if (dictionaries != null)
+            dictionaries.addPerson(props);
+        KnowsIndex knowsIndex = KnowsIndex.of(db);
+        if (knowsIndex != null)
+            knowsIndex.addPerson(person.getId());
+        PersonCache personCache = PersonCache.of(db);
+        if (personCache != null)
+            personCache.addPerson(person.getId(), props);
+        PlaceIndex placeIndex = PlaceIndex.of(db);
+        if (placeIndex != null)
+            placeIndex.addPerson(person.getId(), city.getId());
     }
 
 }
@@ -1,7 +1,7 @@
 /**
  * Update query 3.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -16,6 +16,7 @@ import org.neo4j.graphdb.Node;
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcUpdate3AddCommentLike;
 
 import ldbc.db.LdbcUtils;
+import ldbc.db.LikesIndex;
 
 public class UpdateQuery3 {
 
@@ -30,13 +31,22 @@ public class UpdateQuery3 {
         Map<String, Object> eProps = new HashMap<>(1);
         eProps.put(LdbcUtils.Keys.CREATIONDATE, parameters.creationDate().getTime());
 
+        Node person;
+        Node creator;
         try (Transaction tx = db.beginTx()) {
-            Node person = LdbcUtils.findPersonById(db, parameters.personId());
+            person = LdbcUtils.findPersonById(db, parameters.personId());
             Node comment = LdbcUtils.findCommentById(db, parameters.commentId());
             LdbcUtils.createLikesEdge(person, comment, eProps);
+            creator = LdbcUtils.findCreatorOfMessage(db, comment);
 
             tx.success();
         }
+
+        // Now that the like is committed, tell the index.
+        LikesIndex likesIndex = LikesIndex.of(db);
+        if (likesIndex != null)
+            likesIndex.addLike(creator.getId(), parameters.creationDate().getTime(),
+                               person.getId(), parameters.commentId());
     }
 
 }
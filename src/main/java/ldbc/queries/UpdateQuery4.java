@@ -1,7 +1,7 @@
 /**
  * Update query 4.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -16,6 +16,7 @@ import org.neo4j.graphdb.Node;
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcUpdate4AddForum;
 
 import ldbc.db.LdbcUtils;
+import ldbc.db.NodeIdIndex;
 
 public class UpdateQuery4 {
 
@@ -32,9 +33,10 @@ public class UpdateQuery4 {
         props.put(LdbcUtils.Keys.TITLE, parameters.forumTitle());
         props.put(LdbcUtils.Keys.CREATIONDATE, parameters.creationDate().getTime());
 
+        Node forum;
         try (Transaction tx = db.beginTx()) {
             // Add the forum and its in-node properties.
-            Node forum = LdbcUtils.createForum(db, props);
+            forum = LdbcUtils.createForum(db, props);
 
             // Add a link to the moderator.
             Node moderator = LdbcUtils.findPersonById(db, parameters.moderatorPersonId());
@@ -48,6 +50,11 @@ public class UpdateQuery4 {
 
             tx.success();
         }
+
+        // Now that the forum is committed, tell the node ID index.
+        NodeIdIndex nodeIdIndex = NodeIdIndex.of(db);
+        if (nodeIdIndex != null)
+            nodeIdIndex.add(LdbcUtils.NodeLabel.FORUM, parameters.forumId(), forum.getId());
     }
 
 }
@@ -1,7 +1,7 @@
 /**
  * Update query 5.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -15,6 +15,7 @@ import org.neo4j.graphdb.Node;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcUpdate5AddForumMembership;
 
+import ldbc.db.ForumIndex;
 import ldbc.db.LdbcUtils;
 
 public class UpdateQuery5 {
@@ -30,13 +31,20 @@ public class UpdateQuery5 {
         Map<String, Object> eProps = new HashMap<>(1);
         eProps.put(LdbcUtils.Keys.JOINDATE, parameters.joinDate().getTime());
 
+        Node forum;
+        Node person;
         try (Transaction tx = db.beginTx()) {
-            Node forum = LdbcUtils.findForumById(db, parameters.forumId());
-            Node person = LdbcUtils.findPersonById(db, parameters.personId());
+            forum = LdbcUtils.findForumById(db, parameters.forumId());
+            person = LdbcUtils.findPersonById(db, parameters.personId());
             LdbcUtils.createHasMemberEdge(forum, person, eProps);
 
             tx.success();
         }
+
+        // Now that the membership is committed, tell the index.
+        ForumIndex forumIndex = ForumIndex.of(db);
+        if (forumIndex != null)
+            forumIndex.addMembership(person.getId(), forum.getId(), parameters.joinDate().getTime());
     }
 
 }
@@ -1,7 +1,7 @@
 /**
  * Update query 6.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -15,7 +15,13 @@ import org.neo4j.graphdb.Node;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcUpdate6AddPost;
 
+import ldbc.db.Dictionaries;
+import ldbc.db.ForumIndex;
 import ldbc.db.LdbcUtils;
+import ldbc.db.MessageCountryIndex;
+import ldbc.db.NodeIdIndex;
+import ldbc.db.PostTagIndex;
+import ldbc.db.TimelineIndex;
 
 public class UpdateQuery6 {
 
@@ -37,30 +43,57 @@ public class UpdateQuery6 {
         props.put(LdbcUtils.Keys.CONTENT, parameters.content());
         props.put(LdbcUtils.Keys.LENGTH, parameters.length());
 
+        Node post;
+        Node author;
+        Node country;
+        Node forum;
+        long[] tagNodeIds = new long[parameters.tagIds().size()];
         try (Transaction tx = db.beginTx()) {
             // Add the post and its in-node properties.
-            Node post = LdbcUtils.createPost(db, props);
+            post = LdbcUtils.createPost(db, props);
 
             // Add a link to the post's author.
-            Node author = LdbcUtils.findPersonById(db, parameters.authorPersonId());
+            author = LdbcUtils.findPersonById(db, parameters.authorPersonId());
             LdbcUtils.createHasCreatorEdge(post, author);
 
             // Add a link to the hosting forum.
-            Node forum = LdbcUtils.findForumById(db, parameters.forumId());
+            forum = LdbcUtils.findForumById(db, parameters.forumId());
             LdbcUtils.createContainerOfEdge(forum, post);
 
             // Add a link to the country where the post was uploaded.
-            Node country = LdbcUtils.findCountryById(db, parameters.countryId());
+            country = LdbcUtils.findCountryById(db, parameters.countryId());
             LdbcUtils.createIsLocatedInEdge(post, country);
 
             // Add links to tags.
+            int i = 0;
             for (long tagId : parameters.tagIds()) {
                 Node tag = LdbcUtils.findTagById(db, tagId);
                 LdbcUtils.createHasTagEdge(post, tag);
+                tagNodeIds[i++] = tag.getId();
             }
 
             tx.success();
         }
+
+        // Now that the post is committed, tell the indexes.
+        NodeIdIndex nodeIdIndex = NodeIdIndex.of(db);
+        if (nodeIdIndex != null)
+            nodeIdIndex.add(LdbcUtils.NodeLabel.POST, parameters.postId(), post.getId());
+        Dictionaries dictionaries = Dictionaries.of(db);
+        if (dictionaries != null)
+            dictionaries.addMessage(props);
+        TimelineIndex timelineIndex = TimelineIndex.of(db);
+        if (timelineIndex != null)
+            timelineIndex.addMessage(author.getId(), post.getId(), parameters.creationDate().getTime());
+        MessageCountryIndex messageCountryIndex = MessageCountryIndex.of(db);
+        if (messageCountryIndex != null)
+            messageCountryIndex.addMessage(post.getId(), country.getId());
+        ForumIndex forumIndex = ForumIndex.of(db);
+        if (forumIndex != null)
+            forumIndex.addPost(post.getId(), forum.getId());
+        PostTagIndex postTagIndex = PostTagIndex.of(db);
+        if (postTagIndex != null)
+            postTagIndex.addPost(author.getId(), tagNodeIds);
     }
 
 }
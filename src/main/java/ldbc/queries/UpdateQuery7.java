@@ -1,7 +1,7 @@
 /**
  * Update query 7.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -15,7 +15,14 @@ import org.neo4j.graphdb.Node;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcUpdate7AddComment;
 
+import ldbc.db.Dictionaries;
 import ldbc.db.LdbcUtils;
+import ldbc.db.MessageCountryIndex;
+import ldbc.db.NodeIdIndex;
+import ldbc.db.RepliesIndex;
+import ldbc.db.ReplyScores;
+import ldbc.db.RootPostIndex;
+import ldbc.db.TimelineIndex;
 
 public class UpdateQuery7 {
 
@@ -35,16 +42,21 @@ public class UpdateQuery7 {
         props.put(LdbcUtils.Keys.CONTENT, parameters.content());
         props.put(LdbcUtils.Keys.LENGTH, parameters.length());
 
+        Node comment;
+        Node author;
+        Node country;
+        Node parentMessage = null;
+        Node parentCreator = null;
         try (Transaction tx = db.beginTx()) {
             // Add the comment and its in-node properties.
-            Node comment = LdbcUtils.createComment(db, props);
+            comment = LdbcUtils.createComment(db, props);
 
             // Add a link to the comment's author.
-            Node author = LdbcUtils.findPersonById(db, parameters.authorPersonId());
+            author = LdbcUtils.findPersonById(db, parameters.authorPersonId());
             LdbcUtils.createHasCreatorEdge(comment, author);
 
             // Add a link to the country where the comment was uploaded.
-            Node country = LdbcUtils.findCountryById(db, parameters.countryId());
+            country = LdbcUtils.findCountryById(db, parameters.countryId());
             LdbcUtils.createIsLocatedInEdge(comment, country);
 
             // Add link to a previous post or comment.
@@ -52,11 +64,13 @@ public class UpdateQuery7 {
             if (postId != -1) {
                 Node post = LdbcUtils.findPostById(db, postId);
                 LdbcUtils.createReplyOfEdge(comment, post);
+                parentMessage = post;
             }
             long earlierCommentId = parameters.replyToCommentId();
             if (earlierCommentId != -1) {
                 Node earlierComment = LdbcUtils.findCommentById(db, earlierCommentId);
                 LdbcUtils.createReplyOfEdge(comment, earlierComment);
+                parentMessage = earlierComment;
             }
 
             // Add links to tags.
@@ -65,8 +79,43 @@ public class UpdateQuery7 {
                 LdbcUtils.createHasTagEdge(comment, tag);
             }
 
+            if (parentMessage != null)
+                parentCreator = LdbcUtils.findCreatorOfMessage(db, parentMessage);
+
             tx.success();
         }
+
+        // Now that the comment is committed, tell the indexes.
+        NodeIdIndex nodeIdIndex = NodeIdIndex.of(db);
+        if (nodeIdIndex != null)
+            nodeIdIndex.add(LdbcUtils.NodeLabel.COMMENT, parameters.commentId(), comment.getId());
+        Dictionaries dictionaries = Dictionaries.of(db);
+        if (dictionaries != null)
+            dictionaries.addMessage(props);
+        TimelineIndex timelineIndex = TimelineIndex.of(db);
+        if (timelineIndex != null)
+            timelineIndex.addMessage(author.getId(), comment.getId(), parameters.creationDate().getTime());
+        MessageCountryIndex messageCountryIndex = MessageCountryIndex.of(db);
+        if (messageCountryIndex != null)
+            messageCountryIndex.addMessage(comment.getId(), country.getId());
+
+        // The comment shares the original post of its parent.
+        RootPostIndex rootPostIndex = RootPostIndex.of(db);
+        if (rootPostIndex != null && parentMessage != null) {
+            if (parameters.replyToPostId() != -1)
+                rootPostIndex.addReplyToPost(comment.getId(), parentMessage.getId());
+            else
+                rootPostIndex.addReplyToComment(comment.getId(), parentMessage.getId());
+        }
+
+        // The comment is a reply received by the parent's creator.
+        RepliesIndex repliesIndex = RepliesIndex.of(db);
+        if (repliesIndex != null && parentCreator != null)
+            repliesIndex.addReply(parentCreator.getId(), parameters.creationDate().getTime(),
+                                  parameters.commentId(), author.getId());
+
+        // The author's replies changed; drop any cached weights.
+        ReplyScores.invalidate(db, author.getId());
     }
 
 }
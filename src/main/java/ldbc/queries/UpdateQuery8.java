@@ -1,7 +1,7 @@
 /**
  * Update query 8.
  *
- * Copyright © 2016 Alain Kägi
+ * Copyright © 2016, 2026 Alain Kägi
  */
 
 package ldbc.queries;
@@ -15,6 +15,7 @@ import org.neo4j.graphdb.Node;
 
 import com.ldbc.driver.workloads.ldbc.snb.interactive.LdbcUpdate8AddFriendship;
 
+import ldbc.db.KnowsIndex;
 import ldbc.db.LdbcUtils;
 
 public class UpdateQuery8 {
@@ -30,13 +31,20 @@ public class UpdateQuery8 {
         Map<String, Object> eProps = new HashMap<>(1);
         eProps.put(LdbcUtils.Keys.CREATIONDATE, parameters.creationDate().getTime());
 
+        Node person1;
+        Node person2;
         try (Transaction tx = db.beginTx()) {
-            Node person1 = LdbcUtils.findPersonById(db, parameters.person1Id());
-            Node person2 = LdbcUtils.findPersonById(db, parameters.person2Id());
+            person1 = LdbcUtils.findPersonById(db, parameters.person1Id());
+            person2 = LdbcUtils.findPersonById(db, parameters.person2Id());
             LdbcUtils.createKnowsEdge(person1, person2, eProps);
 
             tx.success();
         }
+
+        // Now that the friendship is committed, tell the KNOWS index.
+        KnowsIndex knowsIndex = KnowsIndex.of(db);
+        if (knowsIndex != null)
+            knowsIndex.addFriendship(person1.getId(), person2.getId());
     }
 
 }